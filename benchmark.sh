@@ -0,0 +1,30 @@
+#!/bin/bash
+
+# OrderDAO JMH benchmarks against a local PostgreSQL
+# Usage: ./benchmark.sh [jmh options]
+#   ./benchmark.sh                                   - all OrderDaoBenchmark runs with -prof gc
+#   ./benchmark.sh OrderDaoBenchmark.getSalesReport -p profile=standard-jdbc
+#   BENCH_THREADS=1,4,16 ./benchmark.sh              - repeat the runs for each thread count
+
+set -e
+
+CONTAINER="orders-bench-postgres"
+BENCH_PASSWORD="${BENCH_PASSWORD:-postgres}"
+JMH_ARGS="${*:-OrderDaoBenchmark -prof gc}"
+
+if ! docker ps --format '{{.Names}}' | grep -q "^${CONTAINER}$"; then
+    echo "Starting local PostgreSQL container ${CONTAINER}..."
+    docker run -d --rm --name "${CONTAINER}" -e POSTGRES_PASSWORD="${BENCH_PASSWORD}" -p 5432:5432 postgres:16
+    until docker exec "${CONTAINER}" pg_isready -U postgres > /dev/null 2>&1; do
+        sleep 1
+    done
+fi
+
+./gradlew jmh -PjmhArgs="${JMH_ARGS}" \
+    -Dbench.threads="${BENCH_THREADS:-}" \
+    -Dbench.jdbcUrl=jdbc:postgresql://localhost:5432/postgres \
+    -Dbench.username=postgres \
+    -Dbench.password="${BENCH_PASSWORD}"
+
+echo ""
+echo "Stop the database with: docker stop ${CONTAINER}"
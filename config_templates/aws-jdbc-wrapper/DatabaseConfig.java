@@ -5,45 +5,22 @@ import com.zaxxer.hikari.HikariDataSource;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.io.InputStream;
 import java.util.Properties;
+import java.util.Set;
 
 @Slf4j
 public class DatabaseConfig {
-    private static final HikariDataSource dataSource;
-    private static String configuredJdbcUrl;
+    private static volatile Pool pool;
+    private static final RoutingDataSource routingDataSource;
+    private static int generation;
 
     static {
         try {
-            Properties props = loadConfig();
-            HikariConfig config = new HikariConfig();
-            
-            // AWS JDBC Wrapper configuration
-            configuredJdbcUrl = props.getProperty("db.url");
-            config.setDataSourceClassName("software.amazon.jdbc.ds.AwsWrapperDataSource");
-            config.addDataSourceProperty("jdbcUrl", configuredJdbcUrl);
-            config.addDataSourceProperty("targetDataSourceClassName", "org.postgresql.ds.PGSimpleDataSource");
-            
-            Properties targetProps = new Properties();
-            targetProps.setProperty("user", props.getProperty("db.username"));
-            
-            // Get password from environment variable only
-            String password = System.getenv("DB_PASSWORD");
-            if (password == null || password.trim().isEmpty()) {
-                throw new RuntimeException("DB_PASSWORD environment variable is required but not set");
-            }
-            targetProps.setProperty("password", password);
-            targetProps.setProperty("wrapperPlugins", "failover");
-            
-            config.addDataSourceProperty("targetDataSourceProperties", targetProps);
-            
-            config.setMaximumPoolSize(5);
-            config.setMinimumIdle(2);
-            config.setIdleTimeout(300000);
-            config.setConnectionTimeout(20000);
-            config.setPoolName("AWSJDBCPool");
-            
-            dataSource = new HikariDataSource(config);
+            AppConfig.load();
+            pool = createPool();
+            // Reads and writes share the one pool in this configuration
+            routingDataSource = new RoutingDataSource(pool.dataSource, pool.dataSource);
+            ConfigWatcher.addListener(DatabaseConfig::configChanged);
             
             log.info("AWS JDBC Wrapper connection pool initialized");
         } catch (IOException e) {
@@ -52,31 +29,102 @@ public class DatabaseConfig {
         }
     }
 
-    private static Properties loadConfig() throws IOException {
-        Properties props = new Properties();
-        try (InputStream input = DatabaseConfig.class
-                .getClassLoader()
-                .getResourceAsStream("application.properties")) {
-            if (input == null) {
-                throw new IOException("Unable to find application.properties");
-            }
-            props.load(input);
+    private static Pool createPool() {
+        HikariConfig config = new HikariConfig();
+        
+        // AWS JDBC Wrapper configuration
+        String url = AppConfig.getProperty("db.url", null);
+        config.setDataSourceClassName("software.amazon.jdbc.ds.AwsWrapperDataSource");
+        config.addDataSourceProperty("jdbcUrl", url);
+        config.addDataSourceProperty("targetDataSourceClassName", "org.postgresql.ds.PGSimpleDataSource");
+        
+        Properties targetProps = new Properties();
+        targetProps.setProperty("user", AppConfig.getProperty("db.username", null));
+        
+        // Get password from environment variable only
+        String password = System.getenv("DB_PASSWORD");
+        if (password == null || password.trim().isEmpty()) {
+            throw new RuntimeException("DB_PASSWORD environment variable is required but not set");
+        }
+        targetProps.setProperty("password", password);
+        targetProps.setProperty("wrapperPlugins", AppConfig.getProperty("db.wrapperPlugins", "failover"));
+        
+        config.addDataSourceProperty("targetDataSourceProperties", targetProps);
+        
+        PoolSettings.configure(config, "db");
+        config.setExceptionOverrideClassName(RoleCacheExceptionOverride.class.getName());
+        // Pools that replace this one after a configuration change get their own name
+        config.setPoolName(generation == 0 ? "AWSJDBCPool" : "AWSJDBCPool-" + generation);
+        generation++;
+        
+        // Null unless db.poolSizing=adaptive
+        PoolSizeController controller = PoolSizeController.configure(config, "db");
+        HikariDataSource dataSource = new HikariDataSource(config);
+        if (controller != null) {
+            controller.start(dataSource);
+        }
+        return new Pool(dataSource, controller, url);
+    }
+
+    /** Applies a changed application.properties (db.reload), replacing the pool if it must. */
+    private static synchronized void configChanged(Set<String> changedKeys) {
+        Pool current = pool;
+        if (!PoolSettings.needsNewPool(changedKeys)) {
+            PoolSettings.apply(current.dataSource, "db", current.controller);
+            return;
+        }
+        Pool replacement;
+        try {
+            replacement = createPool();
+        } catch (RuntimeException e) {
+            log.error("Failed to create replacement connection pool, keeping the current one", e);
+            return;
         }
-        return props;
+        // Published only once connections are routed to it, so getDataSource and getConfiguredUrl
+        // never describe a pool that is not in use
+        routingDataSource.switchTo(replacement.dataSource, replacement.dataSource);
+        pool = replacement;
+        log.info("Switched to connection pool {}", replacement.dataSource.getPoolName());
+        if (current.controller != null) {
+            current.controller.close();
+        }
+        PoolSettings.retire(current.dataSource);
     }
 
     public static HikariDataSource getDataSource() {
-        return dataSource;
+        return pool.dataSource;
+    }
+
+    public static RoutingDataSource getRoutingDataSource() {
+        return routingDataSource;
     }
 
     public static void closePool() {
-        if (dataSource != null) {
-            dataSource.close();
+        Pool current = pool;
+        if (current != null) {
+            if (current.controller != null) {
+                current.controller.close();
+            }
+            current.dataSource.close();
             log.info("Database connection pool closed");
         }
     }
 
     public static String getConfiguredUrl() {
-        return configuredJdbcUrl != null ? configuredJdbcUrl : "URL not initialized";
+        Pool current = pool;
+        return current != null ? current.jdbcUrl : "URL not initialized";
+    }
+
+    /** The pool, its size controller and the URL it was built for, replaced together. */
+    private static final class Pool {
+        private final HikariDataSource dataSource;
+        private final PoolSizeController controller;
+        private final String jdbcUrl;
+
+        private Pool(HikariDataSource dataSource, PoolSizeController controller, String jdbcUrl) {
+            this.dataSource = dataSource;
+            this.controller = controller;
+            this.jdbcUrl = jdbcUrl;
+        }
     }
 }
\ No newline at end of file
@@ -1,82 +1,232 @@
 package com.example.config;
 
+import com.example.wrapper.LeastLatencyHostSelector;
+import com.example.wrapper.PluginProfiles;
+import com.example.wrapper.ReplicaLagMonitor;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.IOException;
-import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Slf4j
 public class DatabaseConfig {
-    private static final HikariDataSource dataSource;
-    private static String configuredJdbcUrl;
+    private static volatile Pools pools;
+    private static final RoutingDataSource routingDataSource;
+    private static int generation;
 
     static {
         try {
-            Properties props = loadConfig();
-            HikariConfig config = new HikariConfig();
-            
-            // AWS JDBC Wrapper with Read/Write Splitting
-            config.setDataSourceClassName("software.amazon.jdbc.ds.AwsWrapperDataSource");
-            configuredJdbcUrl = props.getProperty("db.url");
-            config.addDataSourceProperty("jdbcUrl", configuredJdbcUrl);
-            config.addDataSourceProperty("targetDataSourceClassName", "org.postgresql.ds.PGSimpleDataSource");
-            
-            Properties targetProps = new Properties();
-            targetProps.setProperty("user", props.getProperty("db.username"));
-            
-            // Get password from environment variable only
-            String password = System.getenv("DB_PASSWORD");
-            if (password == null || password.trim().isEmpty()) {
-                throw new RuntimeException("DB_PASSWORD environment variable is required but not set");
-            }
-            targetProps.setProperty("password", password);
-            targetProps.setProperty("wrapperPlugins", "readWriteSplitting,failover");
-            
-            config.addDataSourceProperty("targetDataSourceProperties", targetProps);
-            
-            config.setMaximumPoolSize(5);
-            config.setMinimumIdle(2);
-            config.setIdleTimeout(300000);
-            config.setConnectionTimeout(20000);
-            config.setPoolName("AWSJDBCReadWritePool");
-            
-            dataSource = new HikariDataSource(config);
-            
-            log.info("AWS JDBC Wrapper with Read/Write Splitting initialized");
+            AppConfig.load();
+            pools = createPools();
+            routingDataSource = new RoutingDataSource(pools.writer, pools.reader);
+            ConfigWatcher.addListener(DatabaseConfig::configChanged);
         } catch (IOException e) {
             log.error("Failed to initialize database connection pool", e);
             throw new RuntimeException(e);
         }
     }
 
-    private static Properties loadConfig() throws IOException {
-        Properties props = new Properties();
-        try (InputStream input = DatabaseConfig.class
-                .getClassLoader()
-                .getResourceAsStream("application.properties")) {
-            if (input == null) {
-                throw new IOException("Unable to find application.properties");
+    private static Pools createPools() {
+        String plugins = AppConfig.getProperty("db.wrapperPlugins", "readWriteSplitting,failover");
+        
+        // Get password from environment variable only
+        String password = System.getenv("DB_PASSWORD");
+        if (password == null || password.trim().isEmpty()) {
+            throw new RuntimeException("DB_PASSWORD environment variable is required but not set");
+        }
+        
+        // Pools that replace these after a configuration change get their own names
+        String suffix = generation == 0 ? "" : "-" + generation;
+        generation++;
+        Pools created = new Pools(AppConfig.getProperty("db.url", null),
+                AppConfig.getProperty("db.readerSelection", "random"),
+                Boolean.parseBoolean(AppConfig.getProperty("db.resultCache", "false")));
+        try {
+            if ("split".equalsIgnoreCase(AppConfig.getProperty("db.poolMode", "single"))) {
+                // Separate pools: writer connections never switch hosts, and reader connections
+                // are switched to a reader once when created because the pool marks them read-only.
+                // The pools open their first connections side by side rather than one after the other.
+                CompletableFuture<HikariDataSource> readerPool = CompletableFuture.supplyAsync(() ->
+                        createPool(password, plugins, "AWSJDBCReaderPool" + suffix, true, "db.reader", created));
+                try {
+                    created.writer = createPool(password, withoutReadWriteSplitting(plugins),
+                            "AWSJDBCWriterPool" + suffix, false, "db.writer", created);
+                } finally {
+                    created.reader = readerPool.join();
+                }
+                log.info("AWS JDBC Wrapper with separate writer and reader pools initialized");
+            } else {
+                created.writer = createPool(password, plugins, "AWSJDBCReadWritePool" + suffix, false, "db", created);
+                created.reader = created.writer;
+                log.info("AWS JDBC Wrapper with Read/Write Splitting initialized");
+            }
+        } catch (RuntimeException e) {
+            // Do not leave one pool running when the other could not be created
+            created.close();
+            throw e;
+        }
+
+        if (created.isLeastLatency()) {
+            // Recycle idle reader connections when a reader falls behind so they reconnect elsewhere
+            HikariDataSource readers = created.reader;
+            created.replicaLagMonitor = new ReplicaLagMonitor(created.writer,
+                    Long.parseLong(AppConfig.getProperty("db.readerSelection.maxLagMs", "1000")),
+                    Long.parseLong(AppConfig.getProperty("db.readerSelection.staleMs", "10000")),
+                    () -> readers.getHikariPoolMXBean().softEvictConnections());
+            created.replicaLagMonitor.start(
+                    Long.parseLong(AppConfig.getProperty("db.readerSelection.pollMs", "1000")));
+        }
+        return created;
+    }
+
+    private static HikariDataSource createPool(String password, String plugins, String poolName,
+                                               boolean readOnly, String keyPrefix, Pools owner) {
+        HikariConfig config = new HikariConfig();
+        
+        // AWS JDBC Wrapper configuration
+        config.setDataSourceClassName("software.amazon.jdbc.ds.AwsWrapperDataSource");
+        config.addDataSourceProperty("jdbcUrl", owner.jdbcUrl);
+        config.addDataSourceProperty("targetDataSourceClassName", "org.postgresql.ds.PGSimpleDataSource");
+        
+        Properties targetProps = new Properties();
+        targetProps.setProperty("user", AppConfig.getProperty("db.username", null));
+        targetProps.setProperty("password", password);
+        targetProps.setProperty("wrapperPlugins", plugins);
+        PluginProfiles.configure(targetProps, plugins, owner.readerSelection, owner.resultCache);
+        
+        config.addDataSourceProperty("targetDataSourceProperties", targetProps);
+        
+        PoolSettings.configure(config, keyPrefix);
+        config.setReadOnly(readOnly);
+        config.setExceptionOverrideClassName(RoleCacheExceptionOverride.class.getName());
+        config.setPoolName(poolName);
+        
+        // Writer and reader pools get their own controller, and their own bounds, when split
+        PoolSizeController controller = PoolSizeController.configure(config, keyPrefix);
+        HikariDataSource pool = new HikariDataSource(config);
+        if (controller != null) {
+            controller.start(pool);
+            owner.controllers.put(pool, controller);
+        }
+        return pool;
+    }
+
+    private static String withoutReadWriteSplitting(String plugins) {
+        List<String> kept = new ArrayList<>();
+        for (String plugin : plugins.split(",")) {
+            if (!plugin.trim().isEmpty() && !"readWriteSplitting".equals(plugin.trim())) {
+                kept.add(plugin.trim());
             }
-            props.load(input);
         }
-        return props;
+        return String.join(",", kept);
+    }
+
+    /** Applies a changed application.properties (db.reload), replacing the pools if it must. */
+    private static synchronized void configChanged(Set<String> changedKeys) {
+        Pools current = pools;
+        if (!PoolSettings.needsNewPool(changedKeys)) {
+            if (current.reader == current.writer) {
+                PoolSettings.apply(current.writer, "db", current.controllers.get(current.writer));
+            } else {
+                PoolSettings.apply(current.writer, "db.writer", current.controllers.get(current.writer));
+                PoolSettings.apply(current.reader, "db.reader", current.controllers.get(current.reader));
+            }
+            if (current.replicaLagMonitor != null) {
+                current.replicaLagMonitor.setThresholds(
+                        Long.parseLong(AppConfig.getProperty("db.readerSelection.maxLagMs", "1000")),
+                        Long.parseLong(AppConfig.getProperty("db.readerSelection.staleMs", "10000")));
+            }
+            return;
+        }
+        Pools replacement;
+        try {
+            replacement = createPools();
+        } catch (RuntimeException e) {
+            log.error("Failed to create replacement connection pools, keeping the current ones", e);
+            return;
+        }
+        // Published only once connections are routed to them, so getDataSource and getConfiguredUrl
+        // never describe pools that are not in use
+        routingDataSource.switchTo(replacement.writer, replacement.reader);
+        pools = replacement;
+        log.info("Switched to connection pools {} and {}", replacement.writer.getPoolName(),
+                replacement.reader.getPoolName());
+        current.stopMonitoring();
+        PoolSettings.retire(current.writer);
+        if (current.reader != current.writer) {
+            PoolSettings.retire(current.reader);
+        }
     }
 
     public static HikariDataSource getDataSource() {
-        return dataSource;
+        return pools.writer;
+    }
+
+    public static RoutingDataSource getRoutingDataSource() {
+        return routingDataSource;
     }
 
     public static void closePool() {
-        if (dataSource != null) {
-            dataSource.close();
+        Pools current = pools;
+        if (current != null) {
+            current.close();
             log.info("Database connection pool closed");
         }
     }
 
     public static String getConfiguredUrl() {
-        return configuredJdbcUrl != null ? configuredJdbcUrl : "URL not initialized";
+        Pools current = pools;
+        return current != null ? current.jdbcUrl : "URL not initialized";
+    }
+
+    /**
+     * One set of pools, the settings they were built with and what watches them, replaced as a whole
+     * when the configuration needs new ones.
+     */
+    private static final class Pools {
+        private final String jdbcUrl;
+        private final String readerSelection;
+        private final boolean resultCache;
+        private volatile HikariDataSource writer;
+        private volatile HikariDataSource reader;
+        private final Map<HikariDataSource, PoolSizeController> controllers = new ConcurrentHashMap<>();
+        private ReplicaLagMonitor replicaLagMonitor;
+
+        private Pools(String jdbcUrl, String readerSelection, boolean resultCache) {
+            this.jdbcUrl = jdbcUrl;
+            this.readerSelection = readerSelection;
+            this.resultCache = resultCache;
+        }
+
+        private boolean isLeastLatency() {
+            return LeastLatencyHostSelector.STRATEGY.equals(readerSelection);
+        }
+
+        private void stopMonitoring() {
+            for (PoolSizeController controller : controllers.values()) {
+                controller.close();
+            }
+            if (replicaLagMonitor != null) {
+                replicaLagMonitor.close();
+            }
+        }
+
+        private void close() {
+            stopMonitoring();
+            if (reader != null && reader != writer) {
+                reader.close();
+            }
+            if (writer != null) {
+                writer.close();
+            }
+        }
     }
 }
\ No newline at end of file
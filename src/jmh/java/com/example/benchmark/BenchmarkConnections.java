@@ -0,0 +1,23 @@
+package com.example.benchmark;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+
+/**
+ * Plain pgjdbc connections to the benchmark database, configured with {@code bench.*} system
+ * properties so benchmarks do not depend on application.properties.
+ */
+final class BenchmarkConnections {
+    static final String URL = System.getProperty("bench.jdbcUrl", "jdbc:postgresql://localhost:5432/postgres");
+    static final String USERNAME = System.getProperty("bench.username", "postgres");
+    static final String PASSWORD = System.getProperty("bench.password",
+            System.getenv("DB_PASSWORD") != null ? System.getenv("DB_PASSWORD") : "postgres");
+
+    private BenchmarkConnections() {
+    }
+
+    static Connection open() throws SQLException {
+        return DriverManager.getConnection(URL, USERNAME, PASSWORD);
+    }
+}
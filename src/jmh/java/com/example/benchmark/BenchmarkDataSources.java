@@ -0,0 +1,40 @@
+package com.example.benchmark;
+
+import com.example.config.DriverProfile;
+import com.example.config.RoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Builds a Hikari pool for each demo stage against the benchmark database through
+ * {@link DriverProfile}, so all stages can be measured from one build, and routes DAO calls
+ * over it the way that stage does.
+ */
+final class BenchmarkDataSources {
+    static final String STANDARD_JDBC = "standard-jdbc";
+    static final String AWS_JDBC_WRAPPER = "aws-jdbc-wrapper";
+    static final String READ_WRITE_SPLITTING = "read-write-splitting";
+
+    private BenchmarkDataSources() {
+    }
+
+    static HikariDataSource create(String profile, int poolSize) {
+        HikariConfig config = new HikariConfig();
+        DriverProfile.parse(profile).configure(config, BenchmarkConnections.URL, BenchmarkConnections.USERNAME,
+                BenchmarkConnections.PASSWORD);
+
+        config.setMaximumPoolSize(poolSize);
+        config.setMinimumIdle(poolSize);
+        config.setConnectionTimeout(20000);
+        config.setPoolName("Bench-" + profile + "-" + poolSize);
+        return new HikariDataSource(config);
+    }
+
+    /**
+     * The data source an {@code OrderDAO} should use for {@code profile}: reads are marked
+     * read-only for read-write-splitting, as the stage's own DAO does, so its plugin actually runs.
+     */
+    static RoutingDataSource route(String profile, HikariDataSource pool) {
+        return new RoutingDataSource(pool, pool, DriverProfile.parse(profile).readOnlyReads());
+    }
+}
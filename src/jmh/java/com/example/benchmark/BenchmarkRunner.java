@@ -0,0 +1,33 @@
+package com.example.benchmark;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of {@code ./gradlew jmh}. Takes the usual JMH arguments and adds a thread count
+ * parameter: {@code -Dbench.threads=1,4,16} runs the selected benchmarks once per thread count, in
+ * place of their {@code @Threads} setting, the way {@code -p} does for {@code @Param} fields.
+ * Without it the arguments go to JMH unchanged.
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String threads = System.getProperty("bench.threads", "").trim();
+        if (threads.isEmpty()) {
+            Main.main(args);
+            return;
+        }
+        CommandLineOptions options = new CommandLineOptions(args);
+        for (String count : threads.split(",")) {
+            new Runner(new OptionsBuilder()
+                    .parent(options)
+                    .threads(Integer.parseInt(count.trim()))
+                    .build()).run();
+        }
+    }
+}
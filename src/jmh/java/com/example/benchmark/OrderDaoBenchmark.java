@@ -0,0 +1,107 @@
+package com.example.benchmark;
+
+import com.example.dao.OrderDAO;
+import com.example.model.Order;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OrderDAO operations against a local PostgreSQL for each driver profile and pool size.
+ *
+ * <p>Throughput mode reports ops/ms and SampleTime mode reports latency percentiles; add
+ * {@code -prof gc} for allocation rate and {@code -Dbench.threads=1,4,16} to repeat the run for
+ * each thread count (4 by default, see {@link BenchmarkRunner}).
+ * The wrapper profiles run against a single local instance, so they measure wrapper overhead
+ * rather than reader routing. The table is truncated and reseeded for every trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class OrderDaoBenchmark {
+    private static final int SEED_ORDERS = 1000;
+
+    @Param({BenchmarkDataSources.STANDARD_JDBC, BenchmarkDataSources.AWS_JDBC_WRAPPER,
+            BenchmarkDataSources.READ_WRITE_SPLITTING})
+    public String profile;
+
+    @Param({"5", "20"})
+    public int poolSize;
+
+    private HikariDataSource dataSource;
+    private OrderDAO dao;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        dataSource = BenchmarkDataSources.create(profile, poolSize);
+        dao = new OrderDAO(BenchmarkDataSources.route(profile, dataSource));
+        dao.createTable();
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("TRUNCATE orders RESTART IDENTITY");
+        }
+
+        List<Order> seed = new ArrayList<>(SEED_ORDERS);
+        for (int i = 0; i < SEED_ORDERS; i++) {
+            seed.add(new Order(null, "Customer " + (i % 100), "Laptop", 1 + i % 5, 100.0 + i, "PENDING", null));
+        }
+        dao.createOrders(seed);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public Order createOrder() {
+        Order order = new Order(null, "Bench Customer", "Laptop", 1, 1200.00, "PENDING", null);
+        dao.createOrder(order);
+        return order;
+    }
+
+    @Benchmark
+    public void updateOrderStatus() {
+        dao.updateOrderStatus(ThreadLocalRandom.current().nextLong(1, SEED_ORDERS + 1), "SHIPPED");
+    }
+
+    @Benchmark
+    public List<Order> getOrderHistory() {
+        return dao.getOrderHistory();
+    }
+
+    @Benchmark
+    public Map<String, Object> getSalesReport() {
+        return dao.getSalesReport();
+    }
+
+    @Benchmark
+    public List<Order> searchOrdersByCustomer() {
+        return dao.searchOrdersByCustomer("Customer " + ThreadLocalRandom.current().nextInt(100));
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.benchmark;
+
+import com.example.config.ThreadMode;
+import com.example.dao.OrderDAO;
+import com.example.model.Order;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread-per-request throughput of OrderDAO calls on platform versus virtual threads, with the
+ * same connection pool size for both.
+ *
+ * <p>Each invocation fans {@code concurrency} calls out at once and waits for all of them, the
+ * way a blocking request handler would. Platform mode runs them on a fixed pool of that many
+ * platform threads; virtual mode starts a virtual thread per call. Both then queue for the same
+ * {@code poolSize} connections, so the comparison shows the cost of the threads themselves. The
+ * virtual mode needs a Java 21+ runtime; add {@code -jvmArgs -Djdk.tracePinnedThreads=short} to
+ * report any carrier pinning. Run with {@code ./benchmark.sh ThreadModeBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(1)
+public class ThreadModeBenchmark {
+    private static final int SEED_ORDERS = 1000;
+    private static final int CONCURRENCY = 500;
+
+    @Param({"platform", "virtual"})
+    public String threadMode;
+
+    @Param({"10"})
+    public int poolSize;
+
+    private HikariDataSource dataSource;
+    private OrderDAO dao;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        ThreadMode mode = ThreadMode.valueOf(threadMode.toUpperCase(Locale.ROOT));
+        if (mode == ThreadMode.VIRTUAL && !ThreadMode.virtualThreadsAvailable()) {
+            throw new IllegalStateException("The virtual thread mode needs a Java 21+ runtime");
+        }
+        executor = mode == ThreadMode.VIRTUAL
+                ? mode.newThreadPerTaskExecutor("bench")
+                : Executors.newFixedThreadPool(CONCURRENCY, mode.factory("bench"));
+
+        dataSource = BenchmarkDataSources.create(BenchmarkDataSources.STANDARD_JDBC, poolSize);
+        dao = new OrderDAO(BenchmarkDataSources.route(BenchmarkDataSources.STANDARD_JDBC, dataSource));
+        dao.createTable();
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute("TRUNCATE orders RESTART IDENTITY");
+        }
+
+        List<Order> seed = new ArrayList<>(SEED_ORDERS);
+        for (int i = 0; i < SEED_ORDERS; i++) {
+            seed.add(new Order(null, "Customer " + (i % 100), "Laptop", 1 + i % 5, 100.0 + i, "PENDING", null));
+        }
+        dao.createOrders(seed);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        dataSource.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENCY)
+    public void searchOrdersByCustomer() throws InterruptedException, ExecutionException {
+        List<Future<List<Order>>> calls = new ArrayList<>(CONCURRENCY);
+        for (int i = 0; i < CONCURRENCY; i++) {
+            calls.add(executor.submit(() ->
+                    dao.searchOrdersByCustomer("Customer " + ThreadLocalRandom.current().nextInt(100))));
+        }
+        for (Future<List<Order>> call : calls) {
+            call.get();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(CONCURRENCY)
+    public void updateOrderStatus() throws InterruptedException, ExecutionException {
+        List<Future<?>> calls = new ArrayList<>(CONCURRENCY);
+        for (int i = 0; i < CONCURRENCY; i++) {
+            calls.add(executor.submit(() ->
+                    dao.updateOrderStatus(ThreadLocalRandom.current().nextLong(1, SEED_ORDERS + 1), "SHIPPED")));
+        }
+        for (Future<?> call : calls) {
+            call.get();
+        }
+    }
+}
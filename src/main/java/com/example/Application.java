@@ -1,21 +1,49 @@
 package com.example;
 
+import com.example.cdc.LoggingOrderChangeSink;
+import com.example.cdc.OrderChangeFeed;
+import com.example.config.DatabaseConfig;
+import com.example.config.StartupLifecycle;
 import com.example.dao.OrderDAO;
 import com.example.model.Order;
-import com.example.config.DatabaseConfig;
+import com.example.workload.ProfileComparison;
+import com.example.workload.WorkloadConfig;
+import com.example.workload.WorkloadRunner;
+import com.example.workqueue.PendingOrderProcessor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Slf4j
 public class Application {
     public static void main(String[] args) {
-        OrderDAO dao = new OrderDAO();
+        // Load generator mode, e.g. --workload --threads 16 --rate 500 --duration 60 --warmup 10 --read-ratio 0.8
+        if (Arrays.asList(args).contains("--workload")) {
+            runWorkload(args);
+            return;
+        }
+        // Change data capture mode: logs every change to orders until interrupted
+        if (Arrays.asList(args).contains("--change-feed")) {
+            runChangeFeed();
+            return;
+        }
+
+        // Work queue mode: ships every PENDING order with db.workQueue.workers threads, then exits
+        if (Arrays.asList(args).contains("--process-pending")) {
+            processPendingOrders();
+            return;
+        }
 
         try {
+            StartupLifecycle startup = StartupLifecycle.begin();
+            OrderDAO dao = new OrderDAO();
+
             // Create table
             dao.createTable();
+            startup.ready(dao::prepareStatements);
 
             // WRITE OPERATIONS - Will use Writer endpoint
             log.info("=== PERFORMING WRITE OPERATIONS ===");
@@ -50,4 +78,68 @@ public class Application {
             DatabaseConfig.closePool();
         }
     }
+
+    private static void runWorkload(String[] args) {
+        WorkloadConfig config = WorkloadConfig.parse(args);
+        // e.g. --profiles standard-jdbc,aws-jdbc-wrapper,read-write-splitting runs each in turn and compares
+        if (!config.getProfiles().isEmpty()) {
+            compareProfiles(config);
+            return;
+        }
+        try {
+            StartupLifecycle startup = StartupLifecycle.begin();
+            OrderDAO dao = new OrderDAO();
+            dao.createTable();
+            startup.ready(dao::prepareStatements);
+            new WorkloadRunner(config, dao).run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Workload interrupted", e);
+        } catch (Exception e) {
+            log.error("Workload error", e);
+        } finally {
+            DatabaseConfig.closePool();
+        }
+    }
+
+    private static void compareProfiles(WorkloadConfig config) {
+        try {
+            new ProfileComparison(config).run();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Workload interrupted", e);
+        } catch (Exception e) {
+            log.error("Workload error", e);
+        }
+    }
+
+    private static void runChangeFeed() {
+        try (OrderChangeFeed feed = new OrderChangeFeed().addSink(new LoggingOrderChangeSink())) {
+            feed.start();
+            Thread.currentThread().join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void processPendingOrders() {
+        OrderDAO dao = new OrderDAO();
+        long start = System.nanoTime();
+        PendingOrderProcessor processor = new PendingOrderProcessor(dao, order -> "SHIPPED");
+        try {
+            dao.createTable();
+            processor.start();
+            processor.awaitIdle(1, TimeUnit.HOURS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Work queue error", e);
+        } finally {
+            processor.close();
+            double seconds = (System.nanoTime() - start) / 1e9;
+            log.info("Processed {} orders in {} s ({} orders/s)", processor.getCompleted(),
+                    String.format("%.1f", seconds), String.format("%.0f", processor.getCompleted() / seconds));
+            DatabaseConfig.closePool();
+        }
+    }
 }
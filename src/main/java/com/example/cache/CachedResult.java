@@ -0,0 +1,292 @@
+package com.example.cache;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rows and column metadata of one query result, detached from the connection so they can be
+ * replayed to any number of readers.
+ *
+ * <p>{@link #newResultSet()} returns a forward-only, read-only {@link ResultSet} over the rows
+ * that supports the getters the DAO layer uses (by index and by label, including
+ * {@code getObject(int, Class)} for {@code java.time} types). Other methods throw
+ * {@link SQLFeatureNotSupportedException}.
+ */
+public final class CachedResult {
+    private static final int ROW_OVERHEAD_BYTES = 32;
+    private static final int VALUE_OVERHEAD_BYTES = 24;
+
+    private final String[] labels;
+    private final int[] types;
+    private final String[] typeNames;
+    private final List<Object[]> rows;
+    private final long bytes;
+
+    private CachedResult(String[] labels, int[] types, String[] typeNames, List<Object[]> rows, long bytes) {
+        this.labels = labels;
+        this.types = types;
+        this.typeNames = typeNames;
+        this.rows = rows;
+        this.bytes = bytes;
+    }
+
+    /** Reads every remaining row of {@code rs} and closes it. */
+    public static CachedResult from(ResultSet rs) throws SQLException {
+        try {
+            ResultSetMetaData metaData = rs.getMetaData();
+            int columns = metaData.getColumnCount();
+            String[] labels = new String[columns];
+            int[] types = new int[columns];
+            String[] typeNames = new String[columns];
+            long bytes = 0;
+            for (int i = 0; i < columns; i++) {
+                labels[i] = metaData.getColumnLabel(i + 1);
+                types[i] = metaData.getColumnType(i + 1);
+                typeNames[i] = metaData.getColumnTypeName(i + 1);
+                bytes += 2L * labels[i].length() + VALUE_OVERHEAD_BYTES;
+            }
+
+            List<Object[]> rows = new ArrayList<>();
+            while (rs.next()) {
+                Object[] row = new Object[columns];
+                bytes += ROW_OVERHEAD_BYTES + 8L * columns;
+                for (int i = 0; i < columns; i++) {
+                    row[i] = rs.getObject(i + 1);
+                    bytes += estimateBytes(row[i]);
+                }
+                rows.add(row);
+            }
+            return new CachedResult(labels, types, typeNames, rows, bytes);
+        } finally {
+            rs.close();
+        }
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    public ResultSet newResultSet() {
+        return (ResultSet) Proxy.newProxyInstance(CachedResult.class.getClassLoader(),
+                new Class<?>[] {ResultSet.class}, new Cursor());
+    }
+
+    private static long estimateBytes(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String) {
+            return VALUE_OVERHEAD_BYTES + 16 + 2L * ((String) value).length();
+        }
+        if (value instanceof BigDecimal) {
+            return VALUE_OVERHEAD_BYTES + 40;
+        }
+        return VALUE_OVERHEAD_BYTES;
+    }
+
+    private int findColumn(String label) throws SQLException {
+        for (int i = 0; i < labels.length; i++) {
+            if (labels[i].equalsIgnoreCase(label)) {
+                return i + 1;
+            }
+        }
+        throw new SQLException("Column '" + label + "' not found in result set");
+    }
+
+    private final class Cursor implements InvocationHandler {
+        private int row = -1;
+        private boolean wasNull;
+        private boolean closed;
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "next":
+                    return ++row < rows.size();
+                case "close":
+                    closed = true;
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "wasNull":
+                    return wasNull;
+                case "getRow":
+                    return row >= 0 && row < rows.size() ? row + 1 : 0;
+                case "isBeforeFirst":
+                    return row < 0 && !rows.isEmpty();
+                case "isAfterLast":
+                    return row >= rows.size() && !rows.isEmpty();
+                case "beforeFirst":
+                    row = -1;
+                    return null;
+                case "findColumn":
+                    return findColumn((String) args[0]);
+                case "getMetaData":
+                    return metaData();
+                case "getType":
+                    return ResultSet.TYPE_FORWARD_ONLY;
+                case "getConcurrency":
+                    return ResultSet.CONCUR_READ_ONLY;
+                case "getHoldability":
+                    return ResultSet.CLOSE_CURSORS_AT_COMMIT;
+                case "getFetchSize":
+                    return 0;
+                case "getFetchDirection":
+                    return ResultSet.FETCH_FORWARD;
+                case "setFetchSize":
+                case "setFetchDirection":
+                case "clearWarnings":
+                    return null;
+                case "getWarnings":
+                case "getStatement":
+                    return null;
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy);
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    throw new SQLException("Cached result set does not wrap " + args[0]);
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "CachedResultSet[" + rows.size() + " rows]";
+                default:
+                    if (name.startsWith("get") && args != null && args.length >= 1
+                            && (args[0] instanceof Integer || args[0] instanceof String)) {
+                        return get(name, method.getReturnType(), args);
+                    }
+                    throw new SQLFeatureNotSupportedException("Cached result set does not support " + name);
+            }
+        }
+
+        private Object get(String name, Class<?> returnType, Object[] args) throws SQLException {
+            if (closed) {
+                throw new SQLException("Result set is closed");
+            }
+            if (row < 0 || row >= rows.size()) {
+                throw new SQLException("Result set is not positioned on a row");
+            }
+            int column = args[0] instanceof Integer ? (Integer) args[0] : findColumn((String) args[0]);
+            Object value = rows.get(row)[column - 1];
+            wasNull = value == null;
+
+            if ("getObject".equals(name) && args.length == 2 && args[1] instanceof Class) {
+                return convert(value, (Class<?>) args[1]);
+            }
+            if ("getObject".equals(name)) {
+                return value;
+            }
+            if (returnType.isPrimitive()) {
+                return convertPrimitive(value, returnType);
+            }
+            return convert(value, returnType);
+        }
+
+        private Object convertPrimitive(Object value, Class<?> type) throws SQLException {
+            if (type == boolean.class) {
+                return value != null && (value instanceof Boolean ? (Boolean) value : "t".equals(value.toString()));
+            }
+            Number number = value == null ? 0 : value instanceof Number ? (Number) value : new BigDecimal(value.toString());
+            if (type == int.class) {
+                return number.intValue();
+            } else if (type == long.class) {
+                return number.longValue();
+            } else if (type == double.class) {
+                return number.doubleValue();
+            } else if (type == float.class) {
+                return number.floatValue();
+            } else if (type == short.class) {
+                return number.shortValue();
+            } else if (type == byte.class) {
+                return number.byteValue();
+            }
+            throw new SQLFeatureNotSupportedException("Cached result set cannot convert to " + type);
+        }
+
+        private Object convert(Object value, Class<?> type) throws SQLException {
+            if (value == null || type.isInstance(value)) {
+                return value;
+            }
+            if (type == String.class) {
+                return value.toString();
+            }
+            if (type == LocalDateTime.class && value instanceof Timestamp) {
+                return ((Timestamp) value).toLocalDateTime();
+            }
+            if (type == LocalDate.class && value instanceof Date) {
+                return ((Date) value).toLocalDate();
+            }
+            if (type == BigDecimal.class && value instanceof Number) {
+                return new BigDecimal(value.toString());
+            }
+            if (type == Long.class || type == Integer.class || type == Double.class) {
+                return convertPrimitive(value, type == Long.class ? long.class : type == Integer.class ? int.class : double.class);
+            }
+            throw new SQLFeatureNotSupportedException("Cached result set cannot convert "
+                    + value.getClass().getName() + " to " + type.getName());
+        }
+    }
+
+    private ResultSetMetaData metaData() {
+        return (ResultSetMetaData) Proxy.newProxyInstance(CachedResult.class.getClassLoader(),
+                new Class<?>[] {ResultSetMetaData.class}, new MetaData());
+    }
+
+    private final class MetaData implements InvocationHandler {
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getColumnCount":
+                    return labels.length;
+                case "getColumnLabel":
+                case "getColumnName":
+                    return labels[(Integer) args[0] - 1];
+                case "getColumnType":
+                    return types[(Integer) args[0] - 1];
+                case "getColumnTypeName":
+                    return typeNames[(Integer) args[0] - 1];
+                case "isReadOnly":
+                    return true;
+                case "isNullable":
+                    return ResultSetMetaData.columnNullableUnknown;
+                case "isWrapperFor":
+                    return ((Class<?>) args[0]).isInstance(proxy);
+                case "unwrap":
+                    if (((Class<?>) args[0]).isInstance(proxy)) {
+                        return proxy;
+                    }
+                    throw new SQLException("Cached metadata does not wrap " + args[0]);
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                case "toString":
+                    return "CachedResultSetMetaData" + Arrays.toString(labels);
+                default:
+                    throw new SQLFeatureNotSupportedException("Cached metadata does not support " + method.getName());
+            }
+        }
+    }
+}
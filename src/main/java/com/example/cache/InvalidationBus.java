@@ -0,0 +1,184 @@
+package com.example.cache;
+
+import com.example.config.AppConfig;
+import com.example.config.WriterConnections;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the order caches of every JVM sharing the cluster coherent through PostgreSQL
+ * {@code LISTEN/NOTIFY}. Enabled with {@code db.invalidationBus=true}.
+ *
+ * <p>Writers call {@link #publish} on the connection that made the change, so the notification is
+ * delivered only if and when that transaction commits. Payloads are
+ * {@code <node>|<I|U|D>|<id>,<id>,...}; each node ignores its own, since its caches were already
+ * written through.
+ *
+ * <p>Each node listens on one dedicated pgjdbc connection to the cluster endpoint, outside the
+ * Hikari pools, and drains notifications in batches every {@code db.invalidationBus.pollMs}.
+ * NOTIFY is not replicated, so the listener must be on the writer: after a connection error, or if
+ * a health check finds the instance in recovery (a failover demoted it), the listener reconnects
+ * with backoff until it reaches an instance that is not in recovery. Notifications sent while it
+ * was disconnected are lost, so it clears the local caches once it is listening again.
+ */
+@Slf4j
+public final class InvalidationBus {
+    public enum ChangeType { INSERT, UPDATE, DELETE }
+
+    // PostgreSQL rejects payloads of 8000 bytes or more
+    private static final int MAX_PAYLOAD = 7900;
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private static final boolean enabled = Boolean.parseBoolean(AppConfig.getProperty("db.invalidationBus", "false"));
+    private static final String channel = AppConfig.getProperty("db.invalidationBus.channel", "orders_changed");
+    private static final int pollMs = Integer.parseInt(AppConfig.getProperty("db.invalidationBus.pollMs", "500"));
+    private static final long healthCheckMs = Long.parseLong(
+            AppConfig.getProperty("db.invalidationBus.healthCheckMs", "5000"));
+    private static final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private static final AtomicBoolean started = new AtomicBoolean();
+
+    private InvalidationBus() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /** Starts the listener thread once per process; does nothing when the bus is disabled. */
+    public static void ensureStarted() {
+        if (enabled && started.compareAndSet(false, true)) {
+            Thread listener = new Thread(InvalidationBus::listen, "order-invalidation-listener");
+            listener.setDaemon(true);
+            listener.start();
+        }
+    }
+
+    /** Queues a change notification in the transaction of {@code conn}; a no-op when disabled. */
+    public static void publish(Connection conn, ChangeType type, Collection<Long> orderIds) throws SQLException {
+        if (!enabled || orderIds.isEmpty()) {
+            return;
+        }
+        String prefix = nodeId + "|" + type.name().charAt(0) + "|";
+        StringBuilder payload = new StringBuilder(prefix);
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT pg_notify(?, ?)")) {
+            for (Long id : orderIds) {
+                String value = String.valueOf(id);
+                if (payload.length() + value.length() + 1 > MAX_PAYLOAD) {
+                    notify(pstmt, payload);
+                    payload.setLength(0);
+                    payload.append(prefix);
+                }
+                if (payload.length() > prefix.length()) {
+                    payload.append(',');
+                }
+                payload.append(value);
+            }
+            notify(pstmt, payload);
+        }
+    }
+
+    public static void publish(Connection conn, ChangeType type, long orderId) throws SQLException {
+        publish(conn, type, Collections.singletonList(orderId));
+    }
+
+    /**
+     * Queues a notification for inserted orders whose ids are not known, such as a COPY load. Other
+     * nodes need no ids for inserts: new orders cannot be in their near caches.
+     */
+    public static void publishInserts(Connection conn) throws SQLException {
+        if (!enabled) {
+            return;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT pg_notify(?, ?)")) {
+            notify(pstmt, nodeId + "|I|");
+        }
+    }
+
+    private static void notify(PreparedStatement pstmt, CharSequence payload) throws SQLException {
+        pstmt.setString(1, channel);
+        pstmt.setString(2, payload.toString());
+        pstmt.executeQuery().close();
+    }
+
+    private static void listen() {
+        long backoffMs = 1000;
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Connection conn = WriterConnections.open("order-invalidation-listener")) {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("LISTEN \"" + channel + "\"");
+                }
+                // Anything published while we were not listening is lost
+                OrderNearCache.get().clear();
+                QueryResultCache.get().invalidate(Collections.singleton("orders"));
+                log.info("Listening for order changes on channel '{}' as node {}", channel, nodeId);
+                backoffMs = 1000;
+                drain(conn);
+            } catch (SQLException e) {
+                log.warn("Order invalidation listener disconnected, reconnecting in {} ms: {}", backoffMs, e.getMessage());
+            } catch (RuntimeException e) {
+                // Ending the thread would leave this node's caches unaware of other nodes' writes for good
+                log.error("Order invalidation listener failed, reconnecting in {} ms", backoffMs, e);
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+        }
+    }
+
+    private static void drain(Connection conn) throws SQLException {
+        PGConnection pgConn = conn.unwrap(PGConnection.class);
+        long nextHealthCheck = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(healthCheckMs);
+        while (!Thread.currentThread().isInterrupted()) {
+            PGNotification[] notifications = pgConn.getNotifications(pollMs);
+            if (notifications != null && notifications.length > 0) {
+                apply(notifications);
+            }
+            if (System.nanoTime() - nextHealthCheck >= 0) {
+                WriterConnections.checkWriter(conn);
+                nextHealthCheck = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(healthCheckMs);
+            }
+        }
+    }
+
+    private static void apply(PGNotification[] notifications) {
+        OrderNearCache nearCache = OrderNearCache.get();
+        int evicted = 0;
+        boolean changed = false;
+        for (PGNotification notification : notifications) {
+            String[] parts = notification.getParameter().split("\\|", 3);
+            if (parts.length != 3 || nodeId.equals(parts[0])) {
+                continue;
+            }
+            changed = true;
+            // New orders cannot be in the near cache yet, but they do change cached query results
+            if (!"I".equals(parts[1])) {
+                try {
+                    for (String id : parts[2].split(",")) {
+                        nearCache.invalidate(Long.parseLong(id));
+                        evicted++;
+                    }
+                } catch (NumberFormatException e) {
+                    log.warn("Ignoring malformed order change notification '{}'", notification.getParameter());
+                }
+            }
+        }
+        if (changed) {
+            QueryResultCache.get().invalidate(Collections.singleton("orders"));
+        }
+        log.debug("Applied {} order change notifications, evicted {} orders", notifications.length, evicted);
+    }
+}
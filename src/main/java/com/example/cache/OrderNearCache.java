@@ -0,0 +1,224 @@
+package com.example.cache;
+
+import com.example.config.AppConfig;
+import com.example.config.ConfigWatcher;
+import com.example.model.Order;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-heap cache of {@link Order} rows by id, shared by every {@code OrderDAO} in the
+ * process. Holds at most {@code db.nearCache.maxEntries} orders (least recently used evicted
+ * first) for {@code db.nearCache.ttlSeconds}.
+ *
+ * <p>{@code db.nearCache} defaults to the {@code db.invalidationBus} setting. Without the bus,
+ * writes made by other processes only reach this cache when their entries expire, so with several
+ * application nodes {@code getOrderById} could return a status up to a TTL old.
+ *
+ * <p>Writes go through {@link #put} and {@link #invalidate}, which stamp the entry with a new
+ * version. A read that missed captures {@link #version()} before querying and offers its rows
+ * through {@link #load}, which keeps any entry written after that stamp, so a slow read (or one
+ * served by a lagging reader) cannot overwrite a newer write. Orders are copied in and out, so
+ * callers may mutate what they get back.
+ *
+ * <p>With {@code db.reload=true}, changes to the {@code db.nearCache} settings apply without a
+ * restart; shrinking {@code maxEntries} evicts the least recently used orders straight away.
+ */
+@Slf4j
+public final class OrderNearCache implements OrderNearCacheMXBean {
+    private static final OrderNearCache instance = register(new OrderNearCache(
+            enabledSetting(),
+            Integer.parseInt(AppConfig.getProperty("db.nearCache.maxEntries", "10000")),
+            Long.parseLong(AppConfig.getProperty("db.nearCache.ttlSeconds", "60"))));
+
+    private volatile boolean enabled;
+    private volatile int maxEntries;
+    private volatile long ttlNanos;
+    private final AtomicLong versions = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final LinkedHashMap<Long, Entry> entries;
+    private long clearedVersion;
+
+    private OrderNearCache(boolean enabled, int maxEntries, long ttlSeconds) {
+        this.enabled = enabled;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSeconds);
+        this.entries = new LinkedHashMap<Long, Entry>(Math.min(maxEntries, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                if (size() > OrderNearCache.this.maxEntries) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public static OrderNearCache get() {
+        return instance;
+    }
+
+    /** Re-reads the {@code db.nearCache} settings. */
+    public void reconfigure() {
+        boolean nowEnabled = enabledSetting();
+        int nowMaxEntries = Integer.parseInt(AppConfig.getProperty("db.nearCache.maxEntries", "10000"));
+        long nowTtlNanos = TimeUnit.SECONDS.toNanos(Long.parseLong(AppConfig.getProperty("db.nearCache.ttlSeconds", "60")));
+        synchronized (this) {
+            maxEntries = nowMaxEntries;
+            ttlNanos = nowTtlNanos;
+            if (!nowEnabled) {
+                clear();
+            }
+            enabled = nowEnabled;
+            Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.incrementAndGet();
+            }
+        }
+        log.info("Order near cache {}: {} entries for {} s", nowEnabled ? "enabled" : "disabled", nowMaxEntries,
+                TimeUnit.NANOSECONDS.toSeconds(nowTtlNanos));
+    }
+
+    /** Cached copy of the order, or null on a miss. */
+    public Order get(long id) {
+        if (!enabled) {
+            return null;
+        }
+        synchronized (this) {
+            Entry entry = entries.get(id);
+            if (entry != null && entry.order != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits.incrementAndGet();
+                return copyOf(entry.order);
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /** Stamp to take before querying for orders that will be offered to {@link #load}. */
+    public long version() {
+        return versions.get();
+    }
+
+    /** Caches an order read from the database unless it was written after {@code version}. */
+    public void load(Order order, long version) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            if (version < clearedVersion) {
+                return;
+            }
+            Entry existing = entries.get(order.getId());
+            if (existing == null || existing.version <= version) {
+                entries.put(order.getId(), new Entry(copyOf(order), version, System.nanoTime() + ttlNanos));
+            }
+        }
+    }
+
+    /** Write-through of an order as it now exists in the database. */
+    public void put(Order order) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            entries.put(order.getId(), new Entry(copyOf(order), versions.incrementAndGet(),
+                    System.nanoTime() + ttlNanos));
+        }
+    }
+
+    /**
+     * Drops the cached order after a write made elsewhere, leaving a marker so reads already in
+     * flight do not cache the old row.
+     */
+    public void invalidate(long id) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            entries.put(id, new Entry(null, versions.incrementAndGet(), System.nanoTime() + ttlNanos));
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        clearedVersion = versions.incrementAndGet();
+        entries.clear();
+    }
+
+    @Override
+    public long getHits() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public synchronized long getEntries() {
+        return entries.size();
+    }
+
+    @Override
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    private static Order copyOf(Order order) {
+        return new Order(order.getId(), order.getCustomerName(), order.getProduct(), order.getQuantity(),
+                order.getTotalAmount(), order.getStatus(), order.getOrderDate());
+    }
+
+    private static boolean enabledSetting() {
+        boolean busEnabled = Boolean.parseBoolean(AppConfig.getProperty("db.invalidationBus", "false"));
+        boolean enabled = Boolean.parseBoolean(AppConfig.getProperty("db.nearCache", String.valueOf(busEnabled)));
+        if (enabled && !busEnabled) {
+            log.warn("Order near cache is on without db.invalidationBus: writes from other processes reach it "
+                    + "only when entries expire after db.nearCache.ttlSeconds");
+        }
+        return enabled;
+    }
+
+    private static OrderNearCache register(OrderNearCache cache) {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(cache, new ObjectName("com.example:type=OrderNearCache"));
+        } catch (JMException e) {
+            log.warn("Could not register order near cache MBean", e);
+        }
+        ConfigWatcher.onChange("db.nearCache", cache::reconfigure);
+        return cache;
+    }
+
+    private static final class Entry {
+        private final Order order;
+        private final long version;
+        private final long expiresAt;
+
+        private Entry(Order order, long version, long expiresAt) {
+            this.order = order;
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.cache;
+
+/**
+ * JMX view of the order near cache, registered as {@code com.example:type=OrderNearCache}.
+ */
+public interface OrderNearCacheMXBean {
+
+    long getHits();
+
+    long getMisses();
+
+    /** Entries dropped to stay under the entry limit. */
+    long getEvictions();
+
+    long getEntries();
+
+    int getMaxEntries();
+
+    void clear();
+}
@@ -0,0 +1,316 @@
+package com.example.cache;
+
+import com.example.config.AppConfig;
+import com.example.config.ConfigWatcher;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Process-wide cache of query results, keyed by the SQL text with its bound parameters inlined.
+ *
+ * <p>A statement is cached only when it carries a <code>/&#42; cache:ttl=N &#42;/</code> hint
+ * (seconds), or when {@code db.resultCache.defaultTtlSeconds} is above zero. Entries are tagged
+ * with the tables they read; a write to any of those tables drops them. Because a reader may not have
+ * replayed the write yet, results of queries that started within
+ * {@code db.resultCache.invalidationFenceMs} of an invalidation of their tables are not stored.
+ *
+ * <p>Memory is capped at {@code db.resultCache.maxBytes} of estimated row size, evicting least
+ * recently used entries first. Lookups take one lock; the cache is meant for a handful of hot,
+ * repeated reads rather than as a general purpose store.
+ *
+ * <p>With {@code db.reload=true}, changes to these three settings apply without a restart. Turning
+ * {@code db.resultCache} itself on or off changes the wrapper plugins and needs a new pool.
+ */
+@Slf4j
+public final class QueryResultCache implements QueryResultCacheMXBean {
+    private static final Pattern TTL_HINT = Pattern.compile("/\\*\\s*cache:ttl=(\\d+)\\s*\\*/");
+    private static final Pattern READ_TABLES = Pattern.compile("\\b(?:from|join)\\s+([a-z_][\\w.]*)");
+    private static final Pattern WRITE_TABLES = Pattern.compile(
+            "\\b(?:insert\\s+into|update|delete\\s+from|truncate(?:\\s+table)?|copy)\\s+(?:only\\s+)?([a-z_][\\w.]*)");
+    private static final Pattern DATA_MODIFYING = Pattern.compile("\\b(?:insert|update|delete)\\b");
+
+    private static final QueryResultCache instance = register(new QueryResultCache());
+
+    private volatile long maxBytes;
+    private volatile long defaultTtlSeconds;
+    private volatile long fenceNanos;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, Set<String>> keysByTable = new HashMap<>();
+    private final Map<String, Long> invalidatedAt = new HashMap<>();
+    private long bytes;
+    private Long clearedAt;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private QueryResultCache() {
+        loadSettings();
+    }
+
+    public static QueryResultCache get() {
+        return instance;
+    }
+
+    /** Re-reads the {@code db.resultCache} settings, evicting entries until the cache fits. */
+    public void reconfigure() {
+        loadSettings();
+        synchronized (this) {
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Entry> evicted = eldest.next();
+                eldest.remove();
+                unlink(evicted.getKey(), evicted.getValue());
+                evictions.incrementAndGet();
+            }
+        }
+        log.info("Query result cache limited to {} bytes, default TTL {} s", maxBytes, defaultTtlSeconds);
+    }
+
+    private void loadSettings() {
+        maxBytes = Long.parseLong(AppConfig.getProperty("db.resultCache.maxBytes", String.valueOf(32L * 1024 * 1024)));
+        defaultTtlSeconds = Long.parseLong(AppConfig.getProperty("db.resultCache.defaultTtlSeconds", "0"));
+        fenceNanos = TimeUnit.MILLISECONDS.toNanos(
+                Long.parseLong(AppConfig.getProperty("db.resultCache.invalidationFenceMs", "100")));
+    }
+
+    /** TTL in seconds for a statement, from its hint or the configured default; 0 means not cached. */
+    public long ttlSeconds(String sql) {
+        Matcher hint = TTL_HINT.matcher(sql);
+        return hint.find() ? Long.parseLong(hint.group(1)) : defaultTtlSeconds;
+    }
+
+    /**
+     * SQL with the cache hint removed and whitespace outside string literals collapsed, so
+     * formatting differences share one entry while literal values stay distinct.
+     */
+    public static String normalize(String sql) {
+        String withoutHint = TTL_HINT.matcher(sql).replaceAll(" ");
+        StringBuilder normalized = new StringBuilder(withoutHint.length());
+        boolean inLiteral = false;
+        boolean pendingSpace = false;
+        for (int i = 0; i < withoutHint.length(); i++) {
+            char c = withoutHint.charAt(i);
+            if (!inLiteral && Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                normalized.append(' ');
+                pendingSpace = false;
+            }
+            if (c == '\'') {
+                inLiteral = !inLiteral;
+            }
+            normalized.append(c);
+        }
+        return normalized.toString();
+    }
+
+    /** Whether a normalized statement only reads, so its result may be cached. */
+    public static boolean isQuery(String normalizedSql) {
+        String sql = normalizedSql.toLowerCase(Locale.ROOT);
+        if (sql.startsWith("select") || sql.startsWith("values")) {
+            return !sql.contains(" for update") && !sql.contains(" for share");
+        }
+        return sql.startsWith("with") && !DATA_MODIFYING.matcher(sql).find();
+    }
+
+    /** Tables a normalized write statement modifies; empty if they cannot be determined. */
+    public static Set<String> tablesWritten(String normalizedSql) {
+        return tables(WRITE_TABLES, normalizedSql);
+    }
+
+    public CachedResult lookup(String key) {
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAt - System.nanoTime() > 0) {
+                hits.incrementAndGet();
+                return entry.result;
+            }
+            if (entry != null) {
+                remove(key);
+                invalidations.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Stores a result for {@code ttlSeconds}, unless one of its tables was invalidated since
+     * {@code startNanos} minus the fence or the result alone would take over a tenth of the cache.
+     */
+    public void put(String key, CachedResult result, long ttlSeconds, long startNanos) {
+        if (result.getBytes() > maxBytes / 10) {
+            return;
+        }
+        Set<String> tables = tables(READ_TABLES, key);
+        synchronized (this) {
+            if (invalidatedSince(clearedAt, startNanos)) {
+                return;
+            }
+            for (String table : tables) {
+                if (invalidatedSince(invalidatedAt.get(table), startNanos)) {
+                    return;
+                }
+            }
+            remove(key);
+            entries.put(key, new Entry(result, tables, System.nanoTime() + TimeUnit.SECONDS.toNanos(ttlSeconds)));
+            bytes += result.getBytes();
+            for (String table : tables) {
+                keysByTable.computeIfAbsent(table, t -> new HashSet<>()).add(key);
+            }
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (bytes > maxBytes && eldest.hasNext()) {
+                Map.Entry<String, Entry> evicted = eldest.next();
+                eldest.remove();
+                unlink(evicted.getKey(), evicted.getValue());
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    /** Drops every entry that read any of {@code tables}; an empty collection drops everything. */
+    public void invalidate(Collection<String> tables) {
+        if (tables.isEmpty()) {
+            clear();
+            return;
+        }
+        synchronized (this) {
+            long now = System.nanoTime();
+            for (String table : tables) {
+                String name = table.toLowerCase(Locale.ROOT);
+                invalidatedAt.put(name, now);
+                Set<String> keys = keysByTable.remove(name);
+                if (keys != null) {
+                    for (String key : keys) {
+                        if (remove(key)) {
+                            invalidations.incrementAndGet();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void clear() {
+        clearedAt = System.nanoTime();
+        invalidations.addAndGet(entries.size());
+        entries.clear();
+        keysByTable.clear();
+        bytes = 0;
+    }
+
+    @Override
+    public long getHits() {
+        return hits.get();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public long getInvalidations() {
+        return invalidations.get();
+    }
+
+    @Override
+    public synchronized long getEntries() {
+        return entries.size();
+    }
+
+    @Override
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    private boolean invalidatedSince(Long invalidated, long startNanos) {
+        return invalidated != null && invalidated - (startNanos - fenceNanos) > 0;
+    }
+
+    private boolean remove(String key) {
+        Entry entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        unlink(key, entry);
+        return true;
+    }
+
+    private void unlink(String key, Entry entry) {
+        bytes -= entry.result.getBytes();
+        for (String table : entry.tables) {
+            Set<String> keys = keysByTable.get(table);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysByTable.remove(table);
+                }
+            }
+        }
+    }
+
+    private static Set<String> tables(Pattern pattern, String normalizedSql) {
+        Set<String> tables = new HashSet<>();
+        Matcher matcher = pattern.matcher(normalizedSql.toLowerCase(Locale.ROOT));
+        while (matcher.find()) {
+            String table = matcher.group(1);
+            int dot = table.lastIndexOf('.');
+            tables.add(dot >= 0 ? table.substring(dot + 1) : table);
+        }
+        return tables;
+    }
+
+    private static QueryResultCache register(QueryResultCache cache) {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(cache, new ObjectName("com.example:type=QueryResultCache"));
+        } catch (JMException e) {
+            log.warn("Could not register query result cache MBean", e);
+        }
+        ConfigWatcher.onChange("db.resultCache.", cache::reconfigure);
+        return cache;
+    }
+
+    private static final class Entry {
+        private final CachedResult result;
+        private final Set<String> tables;
+        private final long expiresAt;
+
+        private Entry(CachedResult result, Set<String> tables, long expiresAt) {
+            this.result = result;
+            this.tables = tables;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.cache;
+
+/**
+ * JMX view of the query result cache, registered as {@code com.example:type=QueryResultCache}.
+ */
+public interface QueryResultCacheMXBean {
+
+    long getHits();
+
+    long getMisses();
+
+    /** Entries dropped to stay under the byte limit. */
+    long getEvictions();
+
+    /** Entries dropped because a write touched one of their tables, or because they expired. */
+    long getInvalidations();
+
+    long getEntries();
+
+    /** Estimated heap held by cached rows. */
+    long getBytes();
+
+    long getMaxBytes();
+
+    void clear();
+}
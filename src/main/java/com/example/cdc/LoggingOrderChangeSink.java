@@ -0,0 +1,16 @@
+package com.example.cdc;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+
+@Slf4j
+public class LoggingOrderChangeSink implements OrderChangeSink {
+
+    @Override
+    public void accept(List<OrderChangeEvent> batch) {
+        for (OrderChangeEvent event : batch) {
+            log.info("CHANGE {} at {}: {}", event.getType(), event.getLsn(), event.getOrder());
+        }
+    }
+}
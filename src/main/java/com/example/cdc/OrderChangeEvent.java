@@ -0,0 +1,20 @@
+package com.example.cdc;
+
+import com.example.model.Order;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One row change to {@code orders} decoded from the replication stream. Inserts and updates carry
+ * the full new row; deletes carry only the id.
+ */
+@Data
+@AllArgsConstructor
+public class OrderChangeEvent {
+    public enum Type { INSERT, UPDATE, DELETE }
+
+    private Type type;
+    private Order order;
+    // WAL position of the change, e.g. 0/16B3748
+    private String lsn;
+}
@@ -0,0 +1,285 @@
+package com.example.cdc;
+
+import com.example.config.AppConfig;
+import com.example.config.WriterConnections;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGProperty;
+import org.postgresql.replication.LogSequenceNumber;
+import org.postgresql.replication.PGReplicationStream;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Streams changes to {@code orders} from a logical replication slot and delivers them in batches
+ * to {@link OrderChangeSink}s.
+ *
+ * <p>The slot ({@code db.changeFeed.slotName}) uses the built-in {@code test_decoding} plugin and
+ * is created on first start. Events are delivered once {@code db.changeFeed.batchSize} have
+ * accumulated or {@code db.changeFeed.maxBatchDelayMs} has passed. After every sink has accepted a
+ * batch, the LSN of the last commit it contains is acknowledged as flushed, so the server can
+ * recycle WAL up to it; commits that touch other tables are acknowledged as they pass, so a quiet
+ * {@code orders} table does not hold WAL either. Nothing is acknowledged past a commit whose
+ * events have not all been delivered, so a crash, failover or sink error resumes at that commit
+ * and redelivers rather than skips.
+ *
+ * <p>The logical database must have {@code rds.logical_replication=1} on Aurora, or
+ * {@code wal_level=logical} elsewhere. A slot left behind by a stopped feed retains WAL until it is
+ * dropped with {@code pg_drop_replication_slot}.
+ */
+@Slf4j
+public class OrderChangeFeed implements OrderChangeFeedMXBean, AutoCloseable {
+    private static final String OUTPUT_PLUGIN = "test_decoding";
+    private static final long MAX_BACKOFF_MS = 30_000;
+
+    private final String slotName = AppConfig.getProperty("db.changeFeed.slotName", "orders_change_feed");
+    private final int batchSize = Integer.parseInt(AppConfig.getProperty("db.changeFeed.batchSize", "500"));
+    private final long maxBatchDelayNanos = TimeUnit.MILLISECONDS.toNanos(
+            Long.parseLong(AppConfig.getProperty("db.changeFeed.maxBatchDelayMs", "200")));
+    private final int statusIntervalSeconds = Integer.parseInt(
+            AppConfig.getProperty("db.changeFeed.statusIntervalSeconds", "10"));
+    private final List<OrderChangeSink> sinks = new CopyOnWriteArrayList<>();
+
+    private volatile Thread thread;
+    private volatile long eventsDelivered;
+    private volatile long batchesDelivered;
+    private volatile double eventsPerSecond;
+    private volatile long lagMillis;
+    private volatile long unflushedBytes;
+    private volatile LogSequenceNumber flushedLsn = LogSequenceNumber.INVALID_LSN;
+    private volatile long reconnects;
+    private volatile long sinkFailures;
+
+    public OrderChangeFeed addSink(OrderChangeSink sink) {
+        sinks.add(sink);
+        return this;
+    }
+
+    public synchronized void start() {
+        if (thread != null) {
+            return;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("com.example:type=OrderChangeFeed"));
+        } catch (JMException e) {
+            log.warn("Could not register change feed MBean", e);
+        }
+        thread = new Thread(this::run, "order-change-feed");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(new ObjectName("com.example:type=OrderChangeFeed"));
+        } catch (JMException e) {
+            // Not registered
+        }
+    }
+
+    private void run() {
+        long backoffMs = 1000;
+        while (!Thread.currentThread().isInterrupted()) {
+            try (Connection conn = WriterConnections.open("order-change-feed", replicationProperties())) {
+                PGConnection pgConn = conn.unwrap(PGConnection.class);
+                ensureSlot(conn, pgConn);
+                try (PGReplicationStream stream = pgConn.getReplicationAPI()
+                        .replicationStream()
+                        .logical()
+                        .withSlotName(slotName)
+                        .withSlotOption("include-xids", false)
+                        .withSlotOption("include-timestamp", true)
+                        .withSlotOption("skip-empty-xacts", true)
+                        .withStatusInterval(statusIntervalSeconds, TimeUnit.SECONDS)
+                        .start()) {
+                    log.info("Streaming order changes from slot '{}'", slotName);
+                    backoffMs = 1000;
+                    stream(stream);
+                }
+            } catch (Exception e) {
+                reconnects++;
+                log.warn("Order change feed interrupted, resuming from {} in {} ms: {}",
+                        flushedLsn.asString(), backoffMs, e.getMessage());
+            }
+            try {
+                TimeUnit.MILLISECONDS.sleep(backoffMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            backoffMs = Math.min(backoffMs * 2, MAX_BACKOFF_MS);
+        }
+        log.info("Order change feed stopped at {}", flushedLsn.asString());
+    }
+
+    private void stream(PGReplicationStream stream) throws Exception {
+        List<OrderChangeEvent> batch = new ArrayList<>(batchSize);
+        LogSequenceNumber batchCommitLsn = null;
+        long batchCommitMillis = -1;
+        long batchStart = System.nanoTime();
+        long rateWindowStart = System.nanoTime();
+        long rateWindowEvents = 0;
+
+        while (!Thread.currentThread().isInterrupted()) {
+            ByteBuffer message = stream.readPending();
+            if (message != null) {
+                String text = decode(message);
+                if (TestDecodingParser.isCommit(text)) {
+                    batchCommitLsn = stream.getLastReceiveLSN();
+                    batchCommitMillis = TestDecodingParser.commitTimeMillis(text);
+                } else {
+                    OrderChangeEvent event = TestDecodingParser.parse(text, stream.getLastReceiveLSN().asString());
+                    if (event != null) {
+                        if (batch.isEmpty()) {
+                            batchStart = System.nanoTime();
+                        }
+                        batch.add(event);
+                    }
+                }
+            }
+            boolean due = batch.size() >= batchSize
+                    || (!batch.isEmpty() && System.nanoTime() - batchStart >= maxBatchDelayNanos)
+                    || (batch.isEmpty() && batchCommitLsn != null && message == null);
+            if (!due) {
+                if (message == null) {
+                    TimeUnit.MILLISECONDS.sleep(10);
+                }
+                continue;
+            }
+
+            if (!batch.isEmpty()) {
+                deliver(batch);
+                rateWindowEvents += batch.size();
+                batch.clear();
+            }
+            if (batchCommitLsn != null) {
+                acknowledge(stream, batchCommitLsn, batchCommitMillis);
+                batchCommitLsn = null;
+            }
+
+            long elapsed = System.nanoTime() - rateWindowStart;
+            if (elapsed >= TimeUnit.SECONDS.toNanos(10)) {
+                eventsPerSecond = rateWindowEvents / (elapsed / 1_000_000_000.0);
+                rateWindowStart = System.nanoTime();
+                rateWindowEvents = 0;
+                log.info("Order change feed: {} events/sec, lag {} ms, flushed {}",
+                        Math.round(eventsPerSecond), lagMillis, flushedLsn.asString());
+            }
+            unflushedBytes = Math.max(0, stream.getLastReceiveLSN().asLong() - flushedLsn.asLong());
+        }
+    }
+
+    private void deliver(List<OrderChangeEvent> batch) throws Exception {
+        List<OrderChangeEvent> events = new ArrayList<>(batch);
+        for (OrderChangeSink sink : sinks) {
+            try {
+                sink.accept(events);
+            } catch (Exception e) {
+                sinkFailures++;
+                throw e;
+            }
+        }
+        eventsDelivered += events.size();
+        batchesDelivered++;
+    }
+
+    private void acknowledge(PGReplicationStream stream, LogSequenceNumber lsn, long commitMillis) throws SQLException {
+        // A delivered batch can end part way through a transaction; only its last complete commit
+        // is acknowledged, so the rest is redelivered rather than lost after a restart
+        stream.setAppliedLSN(lsn);
+        stream.setFlushedLSN(lsn);
+        flushedLsn = lsn;
+        if (commitMillis > 0) {
+            lagMillis = Math.max(0, System.currentTimeMillis() - commitMillis);
+        }
+    }
+
+    private void ensureSlot(Connection conn, PGConnection pgConn) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT plugin FROM pg_replication_slots WHERE slot_name = ?")) {
+            pstmt.setString(1, slotName);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return;
+                }
+            }
+        }
+        pgConn.getReplicationAPI()
+                .createReplicationSlot()
+                .logical()
+                .withSlotName(slotName)
+                .withOutputPlugin(OUTPUT_PLUGIN)
+                .make();
+        log.info("Created logical replication slot '{}'; changes before this point are not in the feed", slotName);
+    }
+
+    private static Properties replicationProperties() {
+        Properties props = new Properties();
+        PGProperty.REPLICATION.set(props, "database");
+        PGProperty.ASSUME_MIN_SERVER_VERSION.set(props, "9.4");
+        PGProperty.PREFER_QUERY_MODE.set(props, "simple");
+        return props;
+    }
+
+    private static String decode(ByteBuffer message) {
+        int offset = message.arrayOffset() + message.position();
+        return new String(message.array(), offset, message.remaining(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public long getEventsDelivered() {
+        return eventsDelivered;
+    }
+
+    @Override
+    public long getBatchesDelivered() {
+        return batchesDelivered;
+    }
+
+    @Override
+    public double getEventsPerSecond() {
+        return eventsPerSecond;
+    }
+
+    @Override
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    @Override
+    public long getUnflushedBytes() {
+        return unflushedBytes;
+    }
+
+    @Override
+    public String getFlushedLsn() {
+        return flushedLsn.asString();
+    }
+
+    @Override
+    public long getReconnects() {
+        return reconnects;
+    }
+
+    @Override
+    public long getSinkFailures() {
+        return sinkFailures;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.cdc;
+
+/**
+ * JMX view of the orders change feed, registered as {@code com.example:type=OrderChangeFeed}.
+ */
+public interface OrderChangeFeedMXBean {
+
+    long getEventsDelivered();
+
+    long getBatchesDelivered();
+
+    /** Events delivered per second, averaged over the last reporting interval. */
+    double getEventsPerSecond();
+
+    /** Time between the last acknowledged commit on the writer and its delivery, in milliseconds. */
+    long getLagMillis();
+
+    /** WAL bytes received from the slot but not yet acknowledged as flushed. */
+    long getUnflushedBytes();
+
+    String getFlushedLsn();
+
+    long getReconnects();
+
+    long getSinkFailures();
+}
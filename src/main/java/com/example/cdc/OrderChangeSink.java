@@ -0,0 +1,16 @@
+package com.example.cdc;
+
+import java.util.List;
+
+/**
+ * Destination for order change events, such as a search index or a cache.
+ *
+ * <p>Delivery is at least once: a batch is acknowledged to the replication slot only after every
+ * sink has accepted it, so after a failure or restart the same events may arrive again. Sinks
+ * should apply events idempotently, which the full row in each event makes straightforward.
+ */
+public interface OrderChangeSink {
+
+    /** Applies a batch in commit order; throwing makes the feed reconnect and redeliver it. */
+    void accept(List<OrderChangeEvent> batch) throws Exception;
+}
@@ -0,0 +1,138 @@
+package com.example.cdc;
+
+import com.example.model.Order;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.temporal.ChronoField;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parses the text output of the {@code test_decoding} plugin, for example
+ * <pre>
+ * table public.orders: UPDATE: id[integer]:7 customer_name[character varying]:'Jane' ... status[character varying]:'SHIPPED'
+ * COMMIT 1234 (at 2024-05-01 10:15:02.123456+00)
+ * </pre>
+ */
+final class TestDecodingParser {
+    private static final String ORDERS_PREFIX = "table public.orders: ";
+    private static final DateTimeFormatter TIMESTAMP = new DateTimeFormatterBuilder()
+            .appendPattern("yyyy-MM-dd HH:mm:ss")
+            .optionalStart().appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true).optionalEnd()
+            .toFormatter();
+
+    private TestDecodingParser() {
+    }
+
+    static boolean isCommit(String message) {
+        return message.startsWith("COMMIT");
+    }
+
+    /** Commit time in epoch milliseconds from a COMMIT message with {@code include-timestamp}, or -1. */
+    static long commitTimeMillis(String message) {
+        int at = message.indexOf("(at ");
+        if (at < 0) {
+            return -1;
+        }
+        String value = message.substring(at + 4, message.length() - 1);
+        return OffsetDateTime.parse(value.replace(' ', 'T').replaceFirst("([+-]\\d\\d)$", "$1:00"))
+                .toInstant().toEpochMilli();
+    }
+
+    /** Decodes a change to {@code public.orders}, or returns null for any other message. */
+    static OrderChangeEvent parse(String message, String lsn) {
+        if (!message.startsWith(ORDERS_PREFIX)) {
+            return null;
+        }
+        String rest = message.substring(ORDERS_PREFIX.length());
+        int colon = rest.indexOf(": ");
+        if (colon < 0) {
+            return null;
+        }
+        OrderChangeEvent.Type type;
+        try {
+            type = OrderChangeEvent.Type.valueOf(rest.substring(0, colon));
+        } catch (IllegalArgumentException e) {
+            // TRUNCATE and anything else without a row
+            return null;
+        }
+        String tuple = rest.substring(colon + 2);
+        // An update that changes the key prints the old key first; only the new tuple matters here
+        if (tuple.startsWith("old-key: ")) {
+            int newTuple = tuple.indexOf(" new-tuple: ");
+            if (newTuple < 0) {
+                return null;
+            }
+            tuple = tuple.substring(newTuple + " new-tuple: ".length());
+        }
+
+        Map<String, String> columns = columns(tuple);
+        if (columns.get("id") == null) {
+            // (no-tuple-data): the table's replica identity does not include the key
+            return null;
+        }
+        Order order = new Order();
+        order.setId(Long.parseLong(columns.get("id")));
+        if (type != OrderChangeEvent.Type.DELETE) {
+            order.setCustomerName(columns.get("customer_name"));
+            order.setProduct(columns.get("product"));
+            order.setQuantity(columns.get("quantity") != null ? Integer.valueOf(columns.get("quantity")) : null);
+            order.setTotalAmount(columns.get("total_amount") != null ? Double.valueOf(columns.get("total_amount")) : null);
+            order.setStatus(columns.get("status"));
+            order.setOrderDate(columns.get("order_date") != null
+                    ? LocalDateTime.parse(columns.get("order_date"), TIMESTAMP) : null);
+        }
+        return new OrderChangeEvent(type, order, lsn);
+    }
+
+    /** Splits {@code name[type]:value ...} into column values, unquoting strings and mapping null. */
+    private static Map<String, String> columns(String tuple) {
+        Map<String, String> columns = new HashMap<>();
+        int i = 0;
+        while (i < tuple.length()) {
+            int typeStart = tuple.indexOf('[', i);
+            int valueStart = tuple.indexOf("]:", typeStart);
+            if (typeStart < 0 || valueStart < 0) {
+                break;
+            }
+            String name = tuple.substring(i, typeStart);
+            i = valueStart + 2;
+
+            String value;
+            if (i < tuple.length() && tuple.charAt(i) == '\'') {
+                StringBuilder quoted = new StringBuilder();
+                i++;
+                while (i < tuple.length()) {
+                    char c = tuple.charAt(i++);
+                    if (c == '\'') {
+                        if (i < tuple.length() && tuple.charAt(i) == '\'') {
+                            quoted.append('\'');
+                            i++;
+                        } else {
+                            break;
+                        }
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+                value = quoted.toString();
+            } else {
+                int end = tuple.indexOf(' ', i);
+                end = end < 0 ? tuple.length() : end;
+                value = tuple.substring(i, end);
+                i = end;
+                if ("null".equals(value)) {
+                    value = null;
+                }
+            }
+            columns.put(name, value);
+            while (i < tuple.length() && tuple.charAt(i) == ' ') {
+                i++;
+            }
+        }
+        return columns;
+    }
+}
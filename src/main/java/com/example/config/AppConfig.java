@@ -0,0 +1,76 @@
+package com.example.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Access to application.properties. Settings can be overridden with a JVM system property of the
+ * same name, e.g. {@code -Ddb.roleDetection=off}. The file is read from the classpath, or from the
+ * path in the {@code app.config} system property when that is set.
+ */
+public final class AppConfig {
+    private static volatile Properties properties;
+
+    private AppConfig() {
+    }
+
+    public static Properties load() throws IOException {
+        Properties props = new Properties();
+        String file = System.getProperty("app.config");
+        try (InputStream input = file != null
+                ? Files.newInputStream(Paths.get(file))
+                : AppConfig.class.getClassLoader().getResourceAsStream("application.properties")) {
+            if (input == null) {
+                throw new IOException("Unable to find application.properties");
+            }
+            props.load(input);
+        }
+        properties = props;
+        return props;
+    }
+
+    public static String getProperty(String key, String defaultValue) {
+        String override = System.getProperty(key);
+        if (override != null) {
+            return override;
+        }
+        return loaded().getProperty(key, defaultValue);
+    }
+
+    /** The properties file on disk, or null when it is only available inside a jar. */
+    public static Path configFile() {
+        String file = System.getProperty("app.config");
+        if (file != null) {
+            return Paths.get(file).toAbsolutePath();
+        }
+        URL resource = AppConfig.class.getClassLoader().getResource("application.properties");
+        if (resource == null || !"file".equals(resource.getProtocol())) {
+            return null;
+        }
+        try {
+            return Paths.get(resource.toURI());
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    static Properties loaded() {
+        Properties props = properties;
+        if (props == null) {
+            try {
+                props = load();
+            } catch (IOException e) {
+                // Benchmarks and tools run without application.properties and use defaults
+                props = new Properties();
+                properties = props;
+            }
+        }
+        return props;
+    }
+}
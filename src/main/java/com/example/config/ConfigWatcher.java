@@ -0,0 +1,141 @@
+package com.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Watches application.properties with a {@link WatchService} and, when it changes, reloads it into
+ * {@link AppConfig} and tells listeners which keys changed. Enabled with {@code db.reload=true}.
+ *
+ * <p>Editors often save a file in several writes, so a change is applied only once the file has been
+ * quiet for {@code db.reload.debounceMs}. Listeners run one at a time on the watcher thread and read
+ * the new values through {@link AppConfig#getProperty}; a listener that throws is logged and the
+ * rest still run. Keys overridden by a system property are reported but keep the override.
+ */
+@Slf4j
+public final class ConfigWatcher {
+
+    public interface Listener {
+        void configChanged(Set<String> changedKeys);
+    }
+
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private static final AtomicBoolean started = new AtomicBoolean();
+
+    private ConfigWatcher() {
+    }
+
+    public static void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /** Runs {@code action} after any change to a key that starts with {@code keyPrefix}. */
+    public static void onChange(String keyPrefix, Runnable action) {
+        addListener(changedKeys -> {
+            for (String key : changedKeys) {
+                if (key.startsWith(keyPrefix)) {
+                    action.run();
+                    return;
+                }
+            }
+        });
+    }
+
+    /** Starts the watcher thread once per process; does nothing unless {@code db.reload=true}. */
+    public static void startIfEnabled() {
+        if (!Boolean.parseBoolean(AppConfig.getProperty("db.reload", "false")) || !started.compareAndSet(false, true)) {
+            return;
+        }
+        Path file = AppConfig.configFile();
+        if (file == null) {
+            log.warn("application.properties is not a file on disk, configuration changes will not be picked up");
+            return;
+        }
+        long debounceMs = Long.parseLong(AppConfig.getProperty("db.reload.debounceMs", "500"));
+        Thread watcher = new Thread(() -> watch(file, debounceMs), "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        log.info("Watching {} for configuration changes", file);
+    }
+
+    private static void watch(Path file, long debounceMs) {
+        // Directories are watched, not files, so events for the other files in it are skipped
+        try (WatchService watchService = file.getFileSystem().newWatchService()) {
+            file.getParent().register(watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            while (!Thread.currentThread().isInterrupted()) {
+                if (!touches(watchService.take(), file)) {
+                    continue;
+                }
+                WatchKey more;
+                while ((more = watchService.poll(debounceMs, TimeUnit.MILLISECONDS)) != null) {
+                    touches(more, file);
+                }
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            log.error("Error watching {}, configuration changes will not be picked up", file, e);
+        }
+    }
+
+    private static boolean touches(WatchKey key, Path file) {
+        boolean touched = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            touched |= file.getFileName().equals(event.context());
+        }
+        key.reset();
+        return touched;
+    }
+
+    private static void reload() {
+        Properties before = AppConfig.loaded();
+        Properties after;
+        try {
+            after = AppConfig.load();
+        } catch (IOException e) {
+            log.warn("Could not reload application.properties, keeping the current settings: {}", e.getMessage());
+            return;
+        }
+        Set<String> keys = new HashSet<>(before.stringPropertyNames());
+        keys.addAll(after.stringPropertyNames());
+        Set<String> changed = new TreeSet<>();
+        for (String key : keys) {
+            if (!Objects.equals(before.getProperty(key), after.getProperty(key))) {
+                changed.add(key);
+            }
+        }
+        if (changed.isEmpty()) {
+            return;
+        }
+        log.info("Configuration changed: {}", changed);
+        for (Listener listener : listeners) {
+            try {
+                listener.configChanged(changed);
+            } catch (RuntimeException e) {
+                log.error("Error applying configuration change", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The three demo stages as driver profiles that can be chosen at runtime, so one build can run the
+ * same workload against each of them. They match what {@code demo.sh} installs from
+ * {@code config_templates}: plain pgjdbc, the AWS JDBC Wrapper with {@code failover}, and the
+ * wrapper with {@code readWriteSplitting,failover}, where reads are marked read-only so the wrapper
+ * moves them to a reader.
+ *
+ * <p>The wrapper profiles need the AWS JDBC Wrapper on the runtime classpath, which every stage's
+ * build.gradle provides. Like {@code DatabaseConfig}, they add this application's plugins when
+ * {@code db.resultCache} or {@code db.readerSelection} asks for them; those plugins only build
+ * where the wrapper is a compile dependency, so the standard-jdbc build runs without them.
+ * Replica lag monitoring and adaptive pool sizing stay with {@code DatabaseConfig}.
+ */
+@Slf4j
+public enum DriverProfile {
+    STANDARD_JDBC("standard-jdbc", null),
+    AWS_JDBC_WRAPPER("aws-jdbc-wrapper", "failover"),
+    READ_WRITE_SPLITTING("read-write-splitting", "readWriteSplitting,failover");
+
+    private static final String PLAIN_PREFIX = "jdbc:postgresql:";
+    private static final String WRAPPER_PREFIX = "jdbc:aws-wrapper:postgresql:";
+    // Not compiled into the standard-jdbc build, see build.gradle
+    private static final String PLUGIN_PROFILES = "com.example.wrapper.PluginProfiles";
+
+    private final String id;
+    private final String wrapperPlugins;
+
+    DriverProfile(String id, String wrapperPlugins) {
+        this.id = id;
+        this.wrapperPlugins = wrapperPlugins;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /** Whether reads must be marked read-only to reach a reader. */
+    public boolean readOnlyReads() {
+        return this == READ_WRITE_SPLITTING;
+    }
+
+    public static DriverProfile parse(String id) {
+        for (DriverProfile profile : values()) {
+            if (profile.id.equalsIgnoreCase(id.trim())) {
+                return profile;
+            }
+        }
+        throw new IllegalArgumentException("Unknown driver profile '" + id
+                + "', expected standard-jdbc, aws-jdbc-wrapper or read-write-splitting");
+    }
+
+    /** Parses a comma-separated list such as {@code standard-jdbc,read-write-splitting}. */
+    public static List<DriverProfile> parseList(String ids) {
+        List<DriverProfile> profiles = new ArrayList<>();
+        for (String id : ids.split(",")) {
+            if (!id.trim().isEmpty()) {
+                profiles.add(parse(id));
+            }
+        }
+        return profiles;
+    }
+
+    /** Points {@code config} at {@code url}, with or without the aws-wrapper prefix, through this driver. */
+    public void configure(HikariConfig config, String url, String username, String password) {
+        String plainUrl = url.replace(WRAPPER_PREFIX, PLAIN_PREFIX);
+        if (wrapperPlugins == null) {
+            config.setJdbcUrl(plainUrl);
+            config.setUsername(username);
+            config.setPassword(password);
+            return;
+        }
+        config.setDataSourceClassName("software.amazon.jdbc.ds.AwsWrapperDataSource");
+        config.addDataSourceProperty("jdbcUrl", plainUrl.replace(PLAIN_PREFIX, WRAPPER_PREFIX));
+        config.addDataSourceProperty("targetDataSourceClassName", "org.postgresql.ds.PGSimpleDataSource");
+
+        Properties targetProps = new Properties();
+        targetProps.setProperty("user", username);
+        targetProps.setProperty("password", password);
+        targetProps.setProperty("wrapperPlugins", wrapperPlugins);
+        config.addDataSourceProperty("targetDataSourceProperties", targetProps);
+    }
+
+    /**
+     * Builds a pool for this profile from application.properties ({@code db.url},
+     * {@code db.username}, the {@code db} pool settings and the custom plugin settings) and
+     * {@code DB_PASSWORD}.
+     */
+    public HikariDataSource createPool() {
+        String password = System.getenv("DB_PASSWORD");
+        if (password == null || password.trim().isEmpty()) {
+            throw new RuntimeException("DB_PASSWORD environment variable is required but not set");
+        }
+        HikariConfig config = new HikariConfig();
+        configure(config, AppConfig.getProperty("db.url", ""), AppConfig.getProperty("db.username", null), password);
+        if (wrapperPlugins != null) {
+            addCustomPlugins((Properties) config.getDataSourceProperties().get("targetDataSourceProperties"));
+        }
+        PoolSettings.configure(config, "db");
+        config.setExceptionOverrideClassName(RoleCacheExceptionOverride.class.getName());
+        config.setPoolName("Profile-" + id);
+        return new HikariDataSource(config);
+    }
+
+    private void addCustomPlugins(Properties targetProps) {
+        String readerSelection = AppConfig.getProperty("db.readerSelection", "random");
+        boolean resultCache = Boolean.parseBoolean(AppConfig.getProperty("db.resultCache", "false"));
+        try {
+            Class.forName(PLUGIN_PROFILES)
+                    .getMethod("configure", Properties.class, String.class, String.class, boolean.class)
+                    .invoke(null, targetProps, wrapperPlugins, readerSelection, resultCache);
+        } catch (ClassNotFoundException e) {
+            boolean leastLatency = "leastLatency".equals(readerSelection);
+            if (resultCache || leastLatency) {
+                log.warn("The result cache and leastLatency reader selection are not part of this build; "
+                        + "profile {} runs without them", id);
+            }
+            if (readOnlyReads() && !leastLatency) {
+                targetProps.setProperty("readerHostSelectorStrategy", readerSelection);
+            }
+        } catch (InvocationTargetException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (ReflectiveOperationException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pool settings shared by every {@code DatabaseConfig}, and what changing them at runtime takes.
+ *
+ * <p>Sizes are read as {@code <prefix>.maximumPoolSize} and {@code <prefix>.minimumIdle}, timeouts
+ * as {@code db.connectionTimeoutMs} and {@code db.idleTimeoutMs}; all of them can be applied to a
+ * running pool. Changes to the keys in {@link #needsNewPool} cannot, because they are baked into the
+ * connections or the pool configuration, so {@code DatabaseConfig} builds a new pool, moves new
+ * borrows to it and {@link #retire retires} the old one.
+ */
+@Slf4j
+public final class PoolSettings {
+    private static final Set<String> NEW_POOL_KEYS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "db.url", "db.username", "db.poolMode", "db.wrapperPlugins", "db.readerSelection", "db.resultCache",
+            "db.poolSizing")));
+    // Drains retired pools off the reload thread, each on its own thread so they drain side by side
+    private static final ExecutorService retirer = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "pool-retire");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private PoolSettings() {
+    }
+
+    public static void configure(HikariConfig config, String keyPrefix) {
+        config.setMaximumPoolSize(Integer.parseInt(AppConfig.getProperty(keyPrefix + ".maximumPoolSize", "5")));
+        config.setMinimumIdle(Integer.parseInt(AppConfig.getProperty(keyPrefix + ".minimumIdle", "2")));
+        config.setIdleTimeout(Long.parseLong(AppConfig.getProperty("db.idleTimeoutMs", "300000")));
+        config.setConnectionTimeout(Long.parseLong(AppConfig.getProperty("db.connectionTimeoutMs", "20000")));
+    }
+
+    /**
+     * Applies the current sizes and timeouts to a running pool. Sizes of an adaptive pool are left
+     * to its controller, which instead re-reads its bounds.
+     */
+    public static void apply(HikariDataSource pool, String keyPrefix, PoolSizeController controller) {
+        HikariConfigMXBean config = pool.getHikariConfigMXBean();
+        if (controller != null) {
+            controller.reload();
+        } else {
+            int size = Integer.parseInt(AppConfig.getProperty(keyPrefix + ".maximumPoolSize", "5"));
+            int minIdle = Math.min(size, Integer.parseInt(AppConfig.getProperty(keyPrefix + ".minimumIdle", "2")));
+            // minimumIdle may never exceed the maximum, so order the two updates accordingly
+            if (size >= config.getMaximumPoolSize()) {
+                config.setMaximumPoolSize(size);
+                config.setMinimumIdle(minIdle);
+            } else {
+                config.setMinimumIdle(minIdle);
+                config.setMaximumPoolSize(size);
+            }
+        }
+        config.setIdleTimeout(Long.parseLong(AppConfig.getProperty("db.idleTimeoutMs", "300000")));
+        config.setConnectionTimeout(Long.parseLong(AppConfig.getProperty("db.connectionTimeoutMs", "20000")));
+        log.info("Applied settings to pool {}: {} connections, {} minimum idle", pool.getPoolName(),
+                config.getMaximumPoolSize(), config.getMinimumIdle());
+    }
+
+    public static boolean needsNewPool(Set<String> changedKeys) {
+        for (String key : changedKeys) {
+            if (NEW_POOL_KEYS.contains(key)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Closes a pool that no longer receives borrows once the connections already borrowed from it
+     * are returned, or after {@code db.reload.drainTimeoutSeconds}, whichever comes first. Closing
+     * earlier would abort statements that are still running. Returns straight away; the pool is
+     * drained and closed in the background, so the next reload is not held up.
+     */
+    public static void retire(HikariDataSource pool) {
+        retirer.execute(() -> drainAndClose(pool));
+    }
+
+    private static void drainAndClose(HikariDataSource pool) {
+        long timeoutSeconds = Long.parseLong(AppConfig.getProperty("db.reload.drainTimeoutSeconds", "30"));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        HikariPoolMXBean stats = pool.getHikariPoolMXBean();
+        try {
+            while (stats != null && stats.getActiveConnections() > 0 && deadline - System.nanoTime() > 0) {
+                TimeUnit.MILLISECONDS.sleep(50);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (stats != null && stats.getActiveConnections() > 0) {
+            log.warn("Closing pool {} with {} connections still in use after {} s", pool.getPoolName(),
+                    stats.getActiveConnections(), timeoutSeconds);
+        }
+        pool.close();
+        log.info("Retired pool {}", pool.getPoolName());
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Resizes a Hikari pool at runtime from what it observes, between {@code minSize} and
+ * {@code maxSize}. Enabled with {@code db.poolSizing=adaptive}; otherwise pools keep their
+ * configured sizes.
+ *
+ * <p>Every {@code db.poolSizing.intervalSeconds} it combines two signals. Little's law gives the
+ * connections the current load needs: acquisitions per second times the average time a connection
+ * is held, plus {@code headroom}. On top of that it runs AIMD: if callers waited longer than
+ * {@code targetWaitMs} for a connection, timed out, or were still queued at any sample, the pool
+ * grows by {@code increaseStep} (or straight to the demand, if that is higher); if the busiest
+ * sample used less than half the pool, it shrinks by {@code decreaseFactor}, never below the demand
+ * or the peak in use. {@code minimumIdle} follows the demand, so idle connections are retired after
+ * {@code idleTimeout} and a Serverless v2 reader with no load can scale down.
+ *
+ * <p>Settings are read as {@code <prefix>.poolSizing.<name>}, falling back to
+ * {@code db.poolSizing.<name>}, so split writer and reader pools can have separate bounds under
+ * {@code db.writer} and {@code db.reader}.
+ */
+@Slf4j
+public class PoolSizeController implements PoolSizeControllerMXBean, AutoCloseable {
+    private static final long SAMPLE_MS = 250;
+
+    private final String prefix;
+    // Re-read by reload() when application.properties changes (db.reload)
+    private volatile int minSize;
+    private volatile int maxSize;
+    private volatile double targetWaitMillis;
+    private volatile double headroom;
+    private volatile int increaseStep;
+    private volatile double decreaseFactor;
+    private volatile long intervalMs;
+
+    // Fed by Hikari through the metrics tracker
+    private final LongAdder acquires = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAdder holdMillis = new LongAdder();
+    private final LongAdder holds = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    private HikariDataSource dataSource;
+    private ScheduledExecutorService scheduler;
+    private long windowStart;
+    private int peakActive;
+    private boolean sawWaiters;
+    private volatile int currentSize;
+    private volatile double demand;
+    private volatile double acquiresPerSecond;
+    private volatile double averageHoldMillis;
+    private volatile double averageWaitMillis;
+    private volatile long resizes;
+
+    PoolSizeController(String prefix) {
+        this.prefix = prefix;
+        loadSettings();
+    }
+
+    private void loadSettings() {
+        int min = Integer.parseInt(setting("minSize", "2"));
+        int max = Integer.parseInt(setting("maxSize", "50"));
+        if (min < 1 || max < min) {
+            throw new IllegalArgumentException(prefix + ".poolSizing needs 1 <= minSize <= maxSize");
+        }
+        this.minSize = min;
+        this.maxSize = max;
+        this.targetWaitMillis = Double.parseDouble(setting("targetWaitMs", "5"));
+        this.headroom = Double.parseDouble(setting("headroom", "1.2"));
+        this.increaseStep = Integer.parseInt(setting("increaseStep", "2"));
+        this.decreaseFactor = Double.parseDouble(setting("decreaseFactor", "0.75"));
+        this.intervalMs = TimeUnit.SECONDS.toMillis(Long.parseLong(setting("intervalSeconds", "10")));
+    }
+
+    /** Re-reads the settings; new bounds take effect at the end of the current interval. */
+    public void reload() {
+        try {
+            loadSettings();
+            log.info("Adaptive sizing for pool {} now between {} and {} connections",
+                    dataSource != null ? dataSource.getPoolName() : prefix, minSize, maxSize);
+        } catch (IllegalArgumentException e) {
+            log.warn("Keeping the current pool sizing settings: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Prepares {@code config} for adaptive sizing when {@code db.poolSizing=adaptive}, returning the
+     * controller to {@link #start} once the pool exists, or null when sizing is fixed.
+     */
+    public static PoolSizeController configure(HikariConfig config, String prefix) {
+        if (!"adaptive".equalsIgnoreCase(AppConfig.getProperty("db.poolSizing", "fixed"))) {
+            return null;
+        }
+        PoolSizeController controller = new PoolSizeController(prefix);
+        config.setMetricsTrackerFactory((poolName, poolStats) -> controller.new Tracker());
+        // Start inside the bounds; the first intervals move it to where the load needs it
+        int initial = Math.max(controller.minSize, Math.min(controller.maxSize, config.getMaximumPoolSize()));
+        config.setMaximumPoolSize(initial);
+        config.setMinimumIdle(Math.min(config.getMinimumIdle(), initial));
+        return controller;
+    }
+
+    public synchronized void start(HikariDataSource dataSource) {
+        this.dataSource = dataSource;
+        this.currentSize = dataSource.getMaximumPoolSize();
+        this.windowStart = System.nanoTime();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pool-size-" + dataSource.getPoolName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sample, SAMPLE_MS, SAMPLE_MS, TimeUnit.MILLISECONDS);
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                    new ObjectName("com.example:type=PoolSizeController,name=" + dataSource.getPoolName()));
+        } catch (JMException e) {
+            log.warn("Could not register pool size controller MBean", e);
+        }
+        log.info("Adaptive sizing for pool {} between {} and {} connections", dataSource.getPoolName(), minSize, maxSize);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (scheduler == null) {
+            return;
+        }
+        scheduler.shutdownNow();
+        scheduler = null;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(
+                    new ObjectName("com.example:type=PoolSizeController,name=" + dataSource.getPoolName()));
+        } catch (JMException e) {
+            // Not registered
+        }
+    }
+
+    private void sample() {
+        try {
+            HikariPoolMXBean pool = dataSource.getHikariPoolMXBean();
+            if (pool == null) {
+                return;
+            }
+            peakActive = Math.max(peakActive, pool.getActiveConnections());
+            sawWaiters |= pool.getThreadsAwaitingConnection() > 0;
+
+            long now = System.nanoTime();
+            if (now - windowStart >= TimeUnit.MILLISECONDS.toNanos(intervalMs)) {
+                adjust((now - windowStart) / 1e9);
+                windowStart = now;
+                peakActive = 0;
+                sawWaiters = false;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Pool size controller sample failed: {}", e.getMessage());
+        }
+    }
+
+    private void adjust(double seconds) {
+        long acquired = acquires.sumThenReset();
+        long waitedNanos = acquireNanos.sumThenReset();
+        long held = holds.sumThenReset();
+        long heldMillis = holdMillis.sumThenReset();
+        long timedOut = timeouts.sumThenReset();
+
+        acquiresPerSecond = acquired / seconds;
+        averageHoldMillis = held == 0 ? 0 : (double) heldMillis / held;
+        averageWaitMillis = acquired == 0 ? 0 : waitedNanos / 1e6 / acquired;
+        // Little's law: connections in use = arrival rate x time each is held
+        demand = acquiresPerSecond * averageHoldMillis / 1000 * headroom;
+        int needed = (int) Math.ceil(demand);
+
+        boolean congested = sawWaiters || timedOut > 0 || averageWaitMillis > targetWaitMillis;
+        int next = nextSize(currentSize, needed, peakActive, congested);
+        resize(next, minimumIdle(next, needed));
+    }
+
+    /**
+     * Pool size for the next interval: {@code increaseStep} more (or the demand) when callers were
+     * kept waiting, {@code decreaseFactor} of it when the busiest sample used under half, clamped to
+     * the bounds either way.
+     */
+    int nextSize(int size, int needed, int peakActive, boolean congested) {
+        int next = size;
+        if (congested) {
+            next = Math.max(size + increaseStep, needed);
+        } else if (peakActive < size / 2) {
+            next = Math.max((int) (size * decreaseFactor), Math.max(needed, peakActive + 1));
+        }
+        return Math.max(minSize, Math.min(maxSize, next));
+    }
+
+    int minimumIdle(int size, int needed) {
+        return Math.max(minSize, Math.min(size, needed));
+    }
+
+    private void resize(int size, int minIdle) {
+        HikariConfigMXBean config = dataSource.getHikariConfigMXBean();
+        if (size != currentSize) {
+            log.info("Resizing pool {} from {} to {} connections ({} acquires/s, {} ms held, {} ms wait)",
+                    dataSource.getPoolName(), currentSize, size, Math.round(acquiresPerSecond),
+                    Math.round(averageHoldMillis), String.format("%.1f", averageWaitMillis));
+            resizes++;
+        }
+        // minimumIdle may never exceed the maximum, so order the two updates accordingly
+        if (size >= config.getMaximumPoolSize()) {
+            config.setMaximumPoolSize(size);
+            config.setMinimumIdle(minIdle);
+        } else {
+            config.setMinimumIdle(minIdle);
+            config.setMaximumPoolSize(size);
+        }
+        currentSize = size;
+    }
+
+    private String setting(String name, String defaultValue) {
+        return AppConfig.getProperty(prefix + ".poolSizing." + name,
+                AppConfig.getProperty("db.poolSizing." + name, defaultValue));
+    }
+
+    @Override
+    public int getMinSize() {
+        return minSize;
+    }
+
+    @Override
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public int getCurrentSize() {
+        return currentSize;
+    }
+
+    @Override
+    public double getDemand() {
+        return demand;
+    }
+
+    @Override
+    public double getAcquiresPerSecond() {
+        return acquiresPerSecond;
+    }
+
+    @Override
+    public double getAverageHoldMillis() {
+        return averageHoldMillis;
+    }
+
+    @Override
+    public double getAverageWaitMillis() {
+        return averageWaitMillis;
+    }
+
+    @Override
+    public long getResizes() {
+        return resizes;
+    }
+
+    private final class Tracker implements IMetricsTracker {
+
+        @Override
+        public void recordConnectionAcquiredNanos(long elapsedAcquiredNanos) {
+            acquires.increment();
+            acquireNanos.add(elapsedAcquiredNanos);
+        }
+
+        @Override
+        public void recordConnectionUsageMillis(long elapsedBorrowedMillis) {
+            holds.increment();
+            holdMillis.add(elapsedBorrowedMillis);
+        }
+
+        @Override
+        public void recordConnectionTimeout() {
+            timeouts.increment();
+        }
+    }
+}
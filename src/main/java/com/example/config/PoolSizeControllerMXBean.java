@@ -0,0 +1,26 @@
+package com.example.config;
+
+/**
+ * JMX view of an adaptive pool size controller, registered as
+ * {@code com.example:type=PoolSizeController,name=<pool name>}.
+ */
+public interface PoolSizeControllerMXBean {
+
+    int getMinSize();
+
+    int getMaxSize();
+
+    /** Maximum pool size the controller last set. */
+    int getCurrentSize();
+
+    /** Connections Little's law calls for at the last sample: acquire rate times hold time. */
+    double getDemand();
+
+    double getAcquiresPerSecond();
+
+    double getAverageHoldMillis();
+
+    double getAverageWaitMillis();
+
+    long getResizes();
+}
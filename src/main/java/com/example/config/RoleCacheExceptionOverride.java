@@ -0,0 +1,23 @@
+package com.example.config;
+
+import com.example.dao.InstanceRoleResolver;
+import com.zaxxer.hikari.SQLExceptionOverride;
+
+import java.sql.SQLException;
+
+/**
+ * Hikari hook that sees every SQLException thrown by a pooled connection. Connection-class
+ * errors (SQLState 08xxx), which include the AWS JDBC Wrapper's failover exceptions, drop the
+ * cached instance roles. Hikari's own eviction decision is left unchanged.
+ */
+public class RoleCacheExceptionOverride implements SQLExceptionOverride {
+
+    @java.lang.Override
+    public Override adjudicate(SQLException sqlException) {
+        String sqlState = sqlException.getSQLState();
+        if (sqlState != null && sqlState.startsWith("08")) {
+            InstanceRoleResolver.invalidateAll();
+        }
+        return Override.CONTINUE_EVICT;
+    }
+}
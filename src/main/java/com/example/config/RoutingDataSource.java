@@ -0,0 +1,141 @@
+package com.example.config;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+/**
+ * DataSource that hands out connections from a writer or a reader pool by operation intent.
+ *
+ * <p>Plain {@link #getConnection()} is treated as a write. With a single pool both intents share
+ * it; with separate pools a read never pays the cost of switching a pooled connection between
+ * instances, and exhausting one pool cannot starve the other.
+ *
+ * <p>With {@code readOnlyReads}, read connections are also marked read-only, which is how the AWS
+ * JDBC Wrapper's {@code readWriteSplitting} plugin is told to move them to a reader; the pool
+ * resets the flag when they are returned.
+ *
+ * <p>{@link #switchTo} replaces the pools behind it, so a reconfigured pool can take over without
+ * the DAOs holding this data source noticing. A borrow that was waiting on a pool when it was
+ * retired is retried once on its replacement.
+ */
+public class RoutingDataSource implements DataSource {
+    public enum Intent { READ, WRITE }
+
+    private final boolean readOnlyReads;
+    private volatile Targets targets;
+
+    public RoutingDataSource(DataSource writer, DataSource reader) {
+        this(writer, reader, false);
+    }
+
+    public RoutingDataSource(DataSource writer, DataSource reader, boolean readOnlyReads) {
+        this.targets = new Targets(writer, reader);
+        this.readOnlyReads = readOnlyReads;
+    }
+
+    public Connection getConnection(Intent intent) throws SQLException {
+        Connection conn = borrow(intent);
+        if (intent == Intent.READ && readOnlyReads) {
+            try {
+                conn.setReadOnly(true);
+            } catch (SQLException e) {
+                conn.close();
+                throw e;
+            }
+        }
+        return conn;
+    }
+
+    private Connection borrow(Intent intent) throws SQLException {
+        Targets current = targets;
+        try {
+            return current.get(intent).getConnection();
+        } catch (SQLException e) {
+            Targets latest = targets;
+            if (latest == current) {
+                throw e;
+            }
+            return latest.get(intent).getConnection();
+        }
+    }
+
+    public DataSource target(Intent intent) {
+        return targets.get(intent);
+    }
+
+    public boolean isSplit() {
+        Targets current = targets;
+        return current.writer != current.reader;
+    }
+
+    /** Sends new borrows to {@code writer} and {@code reader}; connections already borrowed are unaffected. */
+    public void switchTo(DataSource writer, DataSource reader) {
+        targets = new Targets(writer, reader);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return getConnection(Intent.WRITE);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return targets.writer.getConnection(username, password);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return targets.writer.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        targets.writer.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        targets.writer.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return targets.writer.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return Logger.getLogger(Logger.GLOBAL_LOGGER_NAME);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return targets.writer.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || targets.writer.isWrapperFor(iface);
+    }
+
+    private static final class Targets {
+        private final DataSource writer;
+        private final DataSource reader;
+
+        private Targets(DataSource writer, DataSource reader) {
+            this.writer = writer;
+            this.reader = reader;
+        }
+
+        private DataSource get(Intent intent) {
+            return intent == Intent.READ ? reader : writer;
+        }
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Brings the connection pools up in explicit steps, so startup cost is paid before the application
+ * reports ready rather than by its first requests.
+ *
+ * <p>{@link #begin()} initializes {@link DatabaseConfig} and runs one query through the writer,
+ * logging the time to that first query. After the schema exists, {@link #ready} borrows every pool's
+ * {@code minimumIdle} connections at once, from one thread each, and hands each connection to a
+ * {@link ConnectionWarmer} before returning them. Holding them until all are borrowed makes the
+ * pool open the full minimum instead of handing the same connection out again. When reads and
+ * writes share one pool, each connection is also switched read-only and back, which connects its
+ * reader and, with the AWS JDBC Wrapper, fetches the cluster topology. Warm-up is bounded by
+ * {@code db.startup.warmupTimeoutSeconds} and skipped with {@code db.startup.warmup=false}; a
+ * connection that fails to warm is logged and left to the pool. Once the first query has run,
+ * {@link ConfigWatcher} starts watching application.properties if {@code db.reload=true}.
+ */
+@Slf4j
+public final class StartupLifecycle {
+
+    /** Prepares whatever the first requests on a new connection would otherwise pay for. */
+    public interface ConnectionWarmer {
+        void warm(Connection conn, RoutingDataSource.Intent intent) throws SQLException;
+    }
+
+    private final boolean warmup = Boolean.parseBoolean(AppConfig.getProperty("db.startup.warmup", "true"));
+    private final long warmupTimeoutSeconds = Long.parseLong(
+            AppConfig.getProperty("db.startup.warmupTimeoutSeconds", "30"));
+    private final long started = System.nanoTime();
+    private final RoutingDataSource dataSource;
+
+    private StartupLifecycle(RoutingDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /** Initializes the pools and runs the first query; the schema need not exist yet. */
+    public static StartupLifecycle begin() {
+        StartupLifecycle lifecycle = new StartupLifecycle(DatabaseConfig.getRoutingDataSource());
+        log.info("Connection pools initialized in {} ms", lifecycle.elapsedMillis());
+        lifecycle.firstQuery();
+        ConfigWatcher.startIfEnabled();
+        return lifecycle;
+    }
+
+    /** Warms every pool's minimum idle connections with {@code warmer} and reports ready. */
+    public void ready(ConnectionWarmer warmer) {
+        if (warmup) {
+            // Split pools are warmed side by side; a shared pool is warmed once for both intents
+            Map<DataSource, RoutingDataSource.Intent> pools = new LinkedHashMap<>();
+            pools.put(dataSource.target(RoutingDataSource.Intent.WRITE), RoutingDataSource.Intent.WRITE);
+            pools.putIfAbsent(dataSource.target(RoutingDataSource.Intent.READ), RoutingDataSource.Intent.READ);
+            boolean shared = pools.size() == 1;
+
+            List<WarmTask> tasks = new ArrayList<>();
+            for (Map.Entry<DataSource, RoutingDataSource.Intent> pool : pools.entrySet()) {
+                int connections = pool.getKey() instanceof HikariDataSource
+                        ? Math.max(1, ((HikariDataSource) pool.getKey()).getMinimumIdle()) : 1;
+                for (int i = 0; i < connections; i++) {
+                    tasks.add(new WarmTask(pool.getKey(), pool.getValue(), shared, warmer));
+                }
+            }
+            warm(tasks);
+        }
+        log.info("Application ready: {} ms after JVM start, {} ms after startup began",
+                sinceJvmStartMillis(), elapsedMillis());
+    }
+
+    private void firstQuery() {
+        try (Connection conn = dataSource.getConnection(RoutingDataSource.Intent.WRITE);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT 1")) {
+            rs.next();
+        } catch (SQLException e) {
+            log.error("Error running first query", e);
+            throw new RuntimeException(e);
+        }
+        log.info("First query completed: {} ms after JVM start, {} ms after startup began",
+                sinceJvmStartMillis(), elapsedMillis());
+    }
+
+    private void warm(List<WarmTask> tasks) {
+        CountDownLatch borrowed = new CountDownLatch(tasks.size());
+        ExecutorService executor = Executors.newFixedThreadPool(tasks.size(), ThreadMode.PLATFORM.factory("pool-warmup"));
+        long warmStart = System.nanoTime();
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (WarmTask task : tasks) {
+                results.add(executor.submit(() -> task.run(borrowed, warmupTimeoutSeconds)));
+            }
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupTimeoutSeconds);
+            int warmed = 0;
+            for (Future<Boolean> result : results) {
+                try {
+                    if (result.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                        warmed++;
+                    }
+                } catch (TimeoutException e) {
+                    log.warn("Connection warm-up did not finish within {} s", warmupTimeoutSeconds);
+                    break;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (Exception e) {
+                    log.warn("Connection warm-up failed: {}", e.getMessage());
+                }
+            }
+            log.info("Warmed {} of {} pooled connections in {} ms", warmed, tasks.size(),
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - warmStart));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long elapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+    }
+
+    private static long sinceJvmStartMillis() {
+        return System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+    }
+
+    private static final class WarmTask {
+        private final DataSource pool;
+        private final RoutingDataSource.Intent intent;
+        private final boolean shared;
+        private final ConnectionWarmer warmer;
+
+        private WarmTask(DataSource pool, RoutingDataSource.Intent intent, boolean shared, ConnectionWarmer warmer) {
+            this.pool = pool;
+            this.intent = intent;
+            this.shared = shared;
+            this.warmer = warmer;
+        }
+
+        private boolean run(CountDownLatch borrowed, long timeoutSeconds) throws SQLException, InterruptedException {
+            Connection conn;
+            try {
+                conn = pool.getConnection();
+            } catch (SQLException e) {
+                borrowed.countDown();
+                throw e;
+            }
+            try {
+                borrowed.countDown();
+                warmer.warm(conn, intent);
+                if (shared) {
+                    conn.setReadOnly(true);
+                    warmer.warm(conn, RoutingDataSource.Intent.READ);
+                    conn.setReadOnly(false);
+                }
+                // Keep the connection until every task has one, so each task warms a different one
+                borrowed.await(timeoutSeconds, TimeUnit.SECONDS);
+                return true;
+            } finally {
+                conn.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Which kind of thread runs DAO calls: {@code platform} (default) or {@code virtual}, selected
+ * with {@code app.threadMode}.
+ *
+ * <p>The build targets Java 8, so virtual threads are reached through reflection and only exist
+ * when the application runs on Java 21 or later; on older runtimes {@code virtual} logs a warning
+ * and falls back to platform threads. Nothing on the connection path blocks inside a
+ * {@code synchronized} block, which would pin the carrier thread: Hikari parks borrowers with
+ * {@code LockSupport}, and pgjdbc 42.6+ guards its I/O with {@code ReentrantLock}. Run with
+ * {@code -Djdk.tracePinnedThreads=short} to check.
+ */
+@Slf4j
+public enum ThreadMode {
+    PLATFORM,
+    VIRTUAL;
+
+    private static final Method ofVirtual = lookup("java.lang.Thread", "ofVirtual");
+    private static final Method threadPerTaskExecutor = lookup("java.util.concurrent.Executors",
+            "newThreadPerTaskExecutor", ThreadFactory.class);
+
+    public static ThreadMode configured() {
+        return parse(AppConfig.getProperty("app.threadMode", "platform"));
+    }
+
+    /** Parses a mode name, falling back to {@link #PLATFORM} when virtual threads are unavailable. */
+    public static ThreadMode parse(String name) {
+        ThreadMode mode = valueOf(name.trim().toUpperCase(Locale.ROOT));
+        if (mode == VIRTUAL && !virtualThreadsAvailable()) {
+            log.warn("Virtual threads need Java 21 or later (running {}), using platform threads",
+                    System.getProperty("java.version"));
+            return PLATFORM;
+        }
+        return mode;
+    }
+
+    public static boolean virtualThreadsAvailable() {
+        return ofVirtual != null && threadPerTaskExecutor != null;
+    }
+
+    /** Factory for threads named {@code <prefix>-1}, {@code <prefix>-2}, ...; platform threads are daemons. */
+    public ThreadFactory factory(String prefix) {
+        if (this == VIRTUAL) {
+            try {
+                Object builder = ofVirtual.invoke(null);
+                Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+                builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix + "-", 1L);
+                return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not create virtual thread factory", e);
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Executor that starts a new thread for every task: cheap for virtual threads, and an
+     * unbounded cached pool for platform threads.
+     */
+    public ExecutorService newThreadPerTaskExecutor(String prefix) {
+        if (this == VIRTUAL) {
+            try {
+                return (ExecutorService) threadPerTaskExecutor.invoke(null, factory(prefix));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not create virtual thread executor", e);
+            }
+        }
+        return Executors.newCachedThreadPool(factory(prefix));
+    }
+
+    private static Method lookup(String className, String name, Class<?>... parameterTypes) {
+        try {
+            return Class.forName(className).getMethod(name, parameterTypes);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
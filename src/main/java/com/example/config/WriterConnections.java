@@ -0,0 +1,58 @@
+package com.example.config;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * Dedicated pgjdbc connections to the writer, outside the Hikari pools and the AWS JDBC Wrapper,
+ * for long-lived sessions such as LISTEN or logical replication whose state a pooled or
+ * failed-over connection would silently lose. They connect to {@code db.url} (without the
+ * {@code aws-wrapper} prefix), whose cluster endpoint follows the writer after a failover, and
+ * refuse an instance that is in recovery; callers reconnect when they see an error.
+ */
+public final class WriterConnections {
+
+    private WriterConnections() {
+    }
+
+    public static Connection open(String applicationName, Properties extraProperties) throws SQLException {
+        String url = AppConfig.getProperty("db.url", "").replace("jdbc:aws-wrapper:postgresql:", "jdbc:postgresql:");
+        Properties props = new Properties();
+        props.setProperty("user", AppConfig.getProperty("db.username", ""));
+        String password = System.getenv("DB_PASSWORD");
+        if (password != null) {
+            props.setProperty("password", password);
+        }
+        props.setProperty("connectTimeout", "10");
+        props.setProperty("tcpKeepAlive", "true");
+        props.setProperty("ApplicationName", applicationName);
+        props.putAll(extraProperties);
+
+        Connection conn = DriverManager.getConnection(url, props);
+        try {
+            checkWriter(conn);
+            return conn;
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+    }
+
+    public static Connection open(String applicationName) throws SQLException {
+        return open(applicationName, new Properties());
+    }
+
+    /** Throws if the instance behind {@code conn} is no longer the writer. */
+    public static void checkWriter(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT pg_is_in_recovery()")) {
+            if (rs.next() && rs.getBoolean(1)) {
+                throw new SQLException("Connected instance is not the writer");
+            }
+        }
+    }
+}
@@ -0,0 +1,941 @@
+package com.example.dao;
+
+import com.example.cache.InvalidationBus;
+import com.example.cache.OrderNearCache;
+import com.example.config.RoutingDataSource;
+import com.example.model.ConsistencyToken;
+import com.example.model.Order;
+import com.example.model.OrderClaim;
+import com.example.model.OrderPage;
+import com.example.model.StatusUpdateResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+/**
+ * Order data access shared by every demo stage. Each stage's {@code OrderDAO}, which
+ * {@code demo.sh} copies from {@code config_templates}, extends this class and only adds what
+ * differs between the stages: how a connection borrowed for a read is prepared
+ * ({@link #prepareReadConnection}).
+ */
+public abstract class AbstractOrderDAO {
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    // 5 or 6 bind parameters per row keeps each statement well under PostgreSQL's 32767 parameter limit
+    private static final int ROWS_PER_INSERT = 50;
+    private static final int STREAM_FETCH_SIZE = 1000;
+    // Rows per bulk status update transaction, which bounds how long their row locks are held
+    private static final int DEFAULT_UPDATE_CHUNK_SIZE = 1000;
+    private static final String INSERT_SQL =
+            "INSERT INTO orders (customer_name, product, quantity, total_amount, status) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_WITH_ID_SQL =
+            "INSERT INTO orders (id, customer_name, product, quantity, total_amount, status) VALUES (?, ?, ?, ?, ?, ?)";
+    // RETURNING gives the near cache the full row as the writer now has it
+    private static final String UPDATE_STATUS_SQL = "UPDATE orders SET status = ? WHERE id = ? RETURNING *";
+    private static final String SELECT_BY_IDS_SQL = "SELECT * FROM orders WHERE id = ANY(?)";
+    // The hint lets the optional result cache serve repeats of this read for a few seconds
+    private static final String SALES_REPORT_SQL = "/* cache:ttl=5 */ SELECT " +
+            "COUNT(*) as total_orders, " +
+            "SUM(total_amount) as total_revenue, " +
+            "AVG(total_amount) as avg_order_value " +
+            "FROM orders";
+    private static final String SEARCH_SQL =
+            "/* cache:ttl=5 */ SELECT * FROM orders WHERE customer_name ILIKE ? ORDER BY order_date DESC";
+    public static final String PENDING = "PENDING";
+    // Claimed by a work queue worker and not yet completed
+    public static final String PROCESSING = "PROCESSING";
+    private static final Comparator<OrderClaim> CLAIMS_BY_ID =
+            (a, b) -> Long.compare(a.getOrder().getId(), b.getOrder().getId());
+
+    // Named after the concrete DAO, so the log reads the same in every stage
+    private final Logger log = LoggerFactory.getLogger(getClass());
+    private final DataSource dataSource;
+    private final OrderNearCache nearCache = OrderNearCache.get();
+    // Null unless db.idAllocator.blockSize is set, in which case inserts carry explicit ids
+    private final OrderIdAllocator idAllocator;
+
+    protected AbstractOrderDAO(DataSource dataSource) {
+        this.dataSource = dataSource;
+        this.idAllocator = OrderIdAllocator.createIfEnabled(dataSource);
+        InvalidationBus.ensureStarted();
+    }
+
+    public void createTable() {
+        String sql = "CREATE TABLE IF NOT EXISTS orders (" +
+                "id SERIAL PRIMARY KEY," +
+                "customer_name VARCHAR(100) NOT NULL," +
+                "product VARCHAR(100) NOT NULL," +
+                "quantity INTEGER NOT NULL," +
+                "total_amount NUMERIC(10,2) NOT NULL," +
+                "status VARCHAR(50) DEFAULT 'PENDING'," +
+                "order_date TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP" +
+                ")";
+        // Keyset pagination compares (order_date, id), which would silently skip rows with a NULL date.
+        // Tables created before the constraint get it here; this fails if such rows already exist.
+        String orderDateNotNullSql = "ALTER TABLE orders ALTER COLUMN order_date SET NOT NULL";
+        // Supports keyset pagination on (order_date DESC, id DESC)
+        String indexSql = "CREATE INDEX IF NOT EXISTS idx_orders_order_date_id ON orders (order_date DESC, id DESC)";
+        // Lease end of a work queue claim (see claimPendingOrders); null unless PROCESSING
+        String claimColumnSql = "ALTER TABLE orders ADD COLUMN IF NOT EXISTS claim_expires_at TIMESTAMP";
+        // Small partial indexes so claiming and lease expiry never scan finished orders
+        String pendingIndexSql = "CREATE INDEX IF NOT EXISTS idx_orders_pending ON orders (id) WHERE status = '" + PENDING + "'";
+        String processingIndexSql = "CREATE INDEX IF NOT EXISTS idx_orders_processing ON orders (claim_expires_at) " +
+                "WHERE status = '" + PROCESSING + "'";
+
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.execute(sql);
+            stmt.execute(orderDateNotNullSql);
+            stmt.execute(indexSql);
+            stmt.execute(claimColumnSql);
+            stmt.execute(pendingIndexSql);
+            stmt.execute(processingIndexSql);
+            logInstance(conn);
+            log.info("Table 'orders' created or already exists");
+        } catch (SQLException e) {
+            log.error("Error creating table", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    public ConsistencyToken createOrder(Order order) {
+        log.info("WRITE OPERATION: Creating new order for customer: {}", order.getCustomerName());
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return insertOrder(order);
+            } catch (SQLException e) {
+                // A duplicate id means the allocator's block was handed out before; one retry
+                // with a fresh block is enough
+                boolean discarded = discardIdsAfter(e);
+                if (attempt == 1 && discarded && "23505".equals(e.getSQLState())) {
+                    log.warn("Order id {} already in use, retrying with a new id block", order.getId());
+                    continue;
+                }
+                log.error("Error creating order", e);
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private ConsistencyToken insertOrder(Order order) throws SQLException {
+        String sql = idAllocator != null ? INSERT_WITH_ID_SQL : INSERT_SQL;
+        if (idAllocator != null) {
+            // Before borrowing, since reserving a new block borrows a connection of its own
+            order.setId(idAllocator.nextId());
+        }
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            
+            logInstance(conn);
+            
+            int index = 1;
+            if (idAllocator != null) {
+                pstmt.setLong(index++, order.getId());
+            }
+            pstmt.setString(index++, order.getCustomerName());
+            pstmt.setString(index++, order.getProduct());
+            pstmt.setInt(index++, order.getQuantity());
+            pstmt.setDouble(index++, order.getTotalAmount());
+            pstmt.setString(index, order.getStatus());
+            
+            pstmt.executeUpdate();
+            
+            // pgjdbc returns the whole inserted row, including the defaulted status and order_date
+            try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                if (rs.next()) {
+                    Order created = OrderRowMapper.forResultSet(rs).mapRow(rs);
+                    order.setId(created.getId());
+                    order.setOrderDate(created.getOrderDate());
+                    nearCache.put(created);
+                }
+            }
+            InvalidationBus.publish(conn, InvalidationBus.ChangeType.INSERT, order.getId());
+            
+            log.info("Order created with ID: {}", order.getId());
+            return ReadYourWrites.captureToken(conn);
+        }
+    }
+
+    /** Drops the allocator's current id block if {@code e} might mean its ids are not safe to use. */
+    private boolean discardIdsAfter(SQLException e) {
+        String state = e.getSQLState();
+        if (idAllocator != null && state != null && (state.equals("23505") || state.startsWith("08"))) {
+            idAllocator.discard();
+            return true;
+        }
+        return false;
+    }
+
+    public ConsistencyToken createOrders(List<Order> orders) {
+        return createOrders(orders.iterator(), DEFAULT_BATCH_SIZE);
+    }
+
+    public ConsistencyToken createOrders(Iterator<Order> orders, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be at least 1");
+        }
+        log.info("WRITE OPERATION: Creating orders in batches of {}", batchSize);
+
+        try (Connection conn = dataSource.getConnection()) {
+            logInstance(conn);
+
+            // One transaction for the whole load so a failover mid-way cannot leave half of it committed
+            conn.setAutoCommit(false);
+            int created = 0;
+            try (PreparedStatement fullInsert = prepareInsert(conn, ROWS_PER_INSERT)) {
+                List<Order> pending = new ArrayList<>(batchSize);
+                while (orders.hasNext()) {
+                    pending.add(orders.next());
+                    if (pending.size() == batchSize) {
+                        created += flushOrders(conn, fullInsert, pending);
+                        pending.clear();
+                    }
+                }
+                if (!pending.isEmpty()) {
+                    created += flushOrders(conn, fullInsert, pending);
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            log.info("Created {} orders", created);
+            return ReadYourWrites.captureToken(conn);
+        } catch (SQLException e) {
+            discardIdsAfter(e);
+            log.error("Error creating orders", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private int flushOrders(Connection conn, PreparedStatement fullInsert, List<Order> pending) throws SQLException {
+        if (idAllocator != null) {
+            for (Order order : pending) {
+                order.setId(idAllocator.nextId());
+            }
+        }
+        int fullRows = pending.size() - pending.size() % ROWS_PER_INSERT;
+
+        // Full groups share one multi-row statement sent as a single JDBC batch
+        if (fullRows > 0) {
+            for (int start = 0; start < fullRows; start += ROWS_PER_INSERT) {
+                bindOrders(fullInsert, pending, start, ROWS_PER_INSERT);
+                fullInsert.addBatch();
+            }
+            fullInsert.executeBatch();
+            assignGeneratedColumns(fullInsert, pending, 0, fullRows);
+        }
+
+        // The remainder goes out as one shorter multi-row statement
+        int remainder = pending.size() - fullRows;
+        if (remainder > 0) {
+            try (PreparedStatement tailInsert = prepareInsert(conn, remainder)) {
+                bindOrders(tailInsert, pending, fullRows, remainder);
+                tailInsert.executeUpdate();
+                assignGeneratedColumns(tailInsert, pending, fullRows, remainder);
+            }
+        }
+
+        if (InvalidationBus.isEnabled()) {
+            List<Long> ids = new ArrayList<>(pending.size());
+            for (Order order : pending) {
+                ids.add(order.getId());
+            }
+            // Delivered to other nodes when the surrounding transaction commits
+            InvalidationBus.publish(conn, InvalidationBus.ChangeType.INSERT, ids);
+        }
+        return pending.size();
+    }
+
+    private PreparedStatement prepareInsert(Connection conn, int rows) throws SQLException {
+        // Inserted rows are read back for the generated id and the defaulted order_date
+        return conn.prepareStatement(multiRowInsertSql(rows, idAllocator != null), Statement.RETURN_GENERATED_KEYS);
+    }
+
+    private static String multiRowInsertSql(int rows, boolean explicitIds) {
+        String row = explicitIds ? "(?, ?, ?, ?, ?, ?)" : "(?, ?, ?, ?, ?)";
+        StringBuilder sql = new StringBuilder(explicitIds
+                ? "INSERT INTO orders (id, customer_name, product, quantity, total_amount, status) VALUES "
+                : "INSERT INTO orders (customer_name, product, quantity, total_amount, status) VALUES ");
+        for (int i = 0; i < rows; i++) {
+            sql.append(i == 0 ? row : ", " + row);
+        }
+        return sql.toString();
+    }
+
+    private void bindOrders(PreparedStatement pstmt, List<Order> orders, int start, int count) throws SQLException {
+        int index = 1;
+        for (int i = start; i < start + count; i++) {
+            Order order = orders.get(i);
+            if (idAllocator != null) {
+                pstmt.setLong(index++, order.getId());
+            }
+            pstmt.setString(index++, order.getCustomerName());
+            pstmt.setString(index++, order.getProduct());
+            pstmt.setInt(index++, order.getQuantity());
+            pstmt.setDouble(index++, order.getTotalAmount());
+            pstmt.setString(index++, order.getStatus());
+        }
+    }
+
+    private static void assignGeneratedColumns(PreparedStatement pstmt, List<Order> orders, int start, int count) throws SQLException {
+        // PostgreSQL returns the rows of a multi-row VALUES insert in row order
+        try (ResultSet rs = pstmt.getGeneratedKeys()) {
+            RowMapper<Order> mapper = OrderRowMapper.forResultSet(rs);
+            int i = start;
+            while (rs.next() && i < start + count) {
+                Order created = mapper.mapRow(rs);
+                Order order = orders.get(i++);
+                order.setId(created.getId());
+                order.setOrderDate(created.getOrderDate());
+            }
+            if (i != start + count) {
+                throw new SQLException("Expected " + count + " generated keys but received " + (i - start));
+            }
+        }
+    }
+
+    public ConsistencyToken updateOrderStatus(Long orderId, String newStatus) {
+        log.info("WRITE OPERATION: Updating order {} status to {}", orderId, newStatus);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(UPDATE_STATUS_SQL)) {
+            
+            logInstance(conn);
+            
+            pstmt.setString(1, newStatus);
+            pstmt.setLong(2, orderId);
+            
+            List<Long> updated = new ArrayList<>(1);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                RowMapper<Order> mapper = OrderRowMapper.forResultSet(rs);
+                while (rs.next()) {
+                    Order order = mapper.mapRow(rs);
+                    nearCache.put(order);
+                    updated.add(order.getId());
+                }
+            }
+            InvalidationBus.publish(conn, InvalidationBus.ChangeType.UPDATE, updated);
+            log.info("Updated {} order(s)", updated.size());
+            return ReadYourWrites.captureToken(conn);
+        } catch (SQLException e) {
+            log.error("Error updating order status", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    public StatusUpdateResult updateOrderStatuses(Map<Long, String> newStatuses) {
+        return updateOrderStatuses(newStatuses, DEFAULT_UPDATE_CHUNK_SIZE);
+    }
+
+    /**
+     * Sets each order in {@code newStatuses} to its status with one set-based UPDATE per chunk of
+     * {@code chunkSize} orders. Each chunk commits on its own, so a failure leaves the earlier
+     * chunks applied. Orders already in the requested status are not counted or rewritten.
+     */
+    public StatusUpdateResult updateOrderStatuses(Map<Long, String> newStatuses, int chunkSize) {
+        log.info("WRITE OPERATION: Updating status of {} orders in chunks of {}", newStatuses.size(), chunkSize);
+        String sql = "UPDATE orders o SET status = u.status " +
+                "FROM unnest(?::bigint[], ?::text[]) AS u(id, status) " +
+                "WHERE o.id = u.id AND o.status IS DISTINCT FROM u.status " +
+                "RETURNING o.*";
+        // Ascending ids give concurrent bulk updates the same lock order
+        List<Object[]> rows = new ArrayList<>(newStatuses.size());
+        for (Map.Entry<Long, String> entry : new TreeMap<>(newStatuses).entrySet()) {
+            rows.add(new Object[] {entry.getKey(), entry.getValue()});
+        }
+        return updateStatusesByUnnest(sql, rows, new String[] {"bigint", "text"}, chunkSize);
+    }
+
+    /**
+     * Runs {@code sql} once per chunk of {@code chunkSize} rows, binding each column of the chunk
+     * as an array of the matching {@code columnTypes} entry.
+     */
+    private StatusUpdateResult updateStatusesByUnnest(String sql, List<Object[]> rows, String[] columnTypes,
+                                                      int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1");
+        }
+        Map<String, Integer> updatedByStatus = new TreeMap<>();
+
+        try (Connection conn = dataSource.getConnection()) {
+            logInstance(conn);
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                for (int start = 0; start < rows.size(); start += chunkSize) {
+                    List<Object[]> chunk = rows.subList(start, Math.min(start + chunkSize, rows.size()));
+                    Array[] arrays = new Array[columnTypes.length];
+                    try {
+                        for (int column = 0; column < columnTypes.length; column++) {
+                            Object[] values = new Object[chunk.size()];
+                            for (int i = 0; i < chunk.size(); i++) {
+                                values[i] = chunk.get(i)[column];
+                            }
+                            arrays[column] = conn.createArrayOf(columnTypes[column], values);
+                            pstmt.setArray(column + 1, arrays[column]);
+                        }
+                        applyStatusChunk(conn, pstmt, updatedByStatus);
+                    } finally {
+                        for (Array array : arrays) {
+                            if (array != null) {
+                                array.free();
+                            }
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            log.info("Updated order statuses: {}", updatedByStatus);
+            return new StatusUpdateResult(updatedByStatus, ReadYourWrites.captureToken(conn));
+        } catch (SQLException e) {
+            log.error("Error updating order statuses", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    public StatusUpdateResult updateStatusWhere(String fromStatus, String toStatus, int limit) {
+        return updateStatusWhere(fromStatus, toStatus, limit, DEFAULT_UPDATE_CHUNK_SIZE);
+    }
+
+    /**
+     * Moves up to {@code limit} orders (all of them if {@code limit <= 0}) from {@code fromStatus}
+     * to {@code toStatus}, {@code chunkSize} rows per transaction. Rows locked by another
+     * transaction are skipped rather than waited for, so they stay in {@code fromStatus}.
+     */
+    public StatusUpdateResult updateStatusWhere(String fromStatus, String toStatus, int limit, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("chunkSize must be at least 1");
+        }
+        if (fromStatus.equals(toStatus)) {
+            // Nothing would change, and every chunk would match the same rows again
+            return new StatusUpdateResult(new TreeMap<String, Integer>(), ConsistencyToken.NONE);
+        }
+        log.info("WRITE OPERATION: Updating {} orders from {} to {} in chunks of {}",
+                limit > 0 ? String.valueOf(limit) : "all", fromStatus, toStatus, chunkSize);
+        String sql = "UPDATE orders SET status = ? WHERE id IN (" +
+                "SELECT id FROM orders WHERE status = ? LIMIT ? FOR UPDATE SKIP LOCKED" +
+                ") RETURNING *";
+        Map<String, Integer> updatedByStatus = new TreeMap<>();
+
+        try (Connection conn = dataSource.getConnection()) {
+            logInstance(conn);
+
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setString(1, toStatus);
+                pstmt.setString(2, fromStatus);
+                int updated = 0;
+                while (limit <= 0 || updated < limit) {
+                    int wanted = limit > 0 ? Math.min(chunkSize, limit - updated) : chunkSize;
+                    pstmt.setInt(3, wanted);
+                    int chunkUpdated = applyStatusChunk(conn, pstmt, updatedByStatus);
+                    updated += chunkUpdated;
+                    if (chunkUpdated < wanted) {
+                        break;
+                    }
+                }
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            log.info("Updated order statuses: {}", updatedByStatus);
+            return new StatusUpdateResult(updatedByStatus, ReadYourWrites.captureToken(conn));
+        } catch (SQLException e) {
+            log.error("Error updating order statuses", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Claims up to {@code max} {@code PENDING} orders for processing by moving them to
+     * {@code PROCESSING} with a lease of {@code leaseSeconds}. Rows another worker is claiming at
+     * the same moment are skipped instead of waited for, so concurrent callers never block on each
+     * other or receive the same order. Returns the claims, oldest id first; completing an order
+     * takes its claim, see {@link #completeOrders}.
+     */
+    public List<OrderClaim> claimPendingOrders(int max, int leaseSeconds) {
+        String sql = "UPDATE orders SET status = '" + PROCESSING + "', " +
+                "claim_expires_at = CURRENT_TIMESTAMP + make_interval(secs => ?) " +
+                "WHERE id IN (SELECT id FROM orders WHERE status = '" + PENDING + "' " +
+                "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                "RETURNING *";
+        List<OrderClaim> claimed = new ArrayList<>(max);
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            logInstance(conn);
+
+            pstmt.setInt(1, leaseSeconds);
+            pstmt.setInt(2, max);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                RowMapper<Order> mapper = OrderRowMapper.forResultSet(rs);
+                while (rs.next()) {
+                    Order order = mapper.mapRow(rs);
+                    nearCache.put(order);
+                    claimed.add(new OrderClaim(order, rs.getObject("claim_expires_at", LocalDateTime.class)));
+                }
+            }
+            if (InvalidationBus.isEnabled() && !claimed.isEmpty()) {
+                List<Long> ids = new ArrayList<>(claimed.size());
+                for (OrderClaim claim : claimed) {
+                    ids.add(claim.getOrder().getId());
+                }
+                InvalidationBus.publish(conn, InvalidationBus.ChangeType.UPDATE, ids);
+            }
+            // UPDATE ... RETURNING does not keep the result order of the subquery
+            claimed.sort(CLAIMS_BY_ID);
+            log.debug("Claimed {} pending orders", claimed.size());
+            return claimed;
+        } catch (SQLException e) {
+            log.error("Error claiming pending orders", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Records the outcome of each claim in set-based chunks. An outcome only applies while its
+     * claim is the current one: once the lease expired and the order was released, or claimed
+     * again, its {@code claim_expires_at} no longer matches and the late outcome is dropped, so
+     * an order is never completed by two workers. The result counts the outcomes applied.
+     */
+    public StatusUpdateResult completeOrders(Map<OrderClaim, String> outcomes) {
+        log.info("WRITE OPERATION: Completing {} claimed orders", outcomes.size());
+        String sql = "UPDATE orders o SET status = u.status, claim_expires_at = NULL " +
+                "FROM unnest(?::bigint[], ?::text[], ?::text[]) AS u(id, status, claim_expires_at) " +
+                "WHERE o.id = u.id AND o.status = '" + PROCESSING + "' " +
+                "AND o.claim_expires_at = u.claim_expires_at::timestamp " +
+                "RETURNING o.*";
+        List<OrderClaim> claims = new ArrayList<>(outcomes.keySet());
+        claims.sort(CLAIMS_BY_ID);
+        List<Object[]> rows = new ArrayList<>(claims.size());
+        for (OrderClaim claim : claims) {
+            // The lease as text: a Timestamp would go through the JVM time zone and shift DST gap times
+            rows.add(new Object[] {claim.getOrder().getId(), outcomes.get(claim),
+                    claim.getLeaseExpiresAt().toString()});
+        }
+        return updateStatusesByUnnest(sql, rows, new String[] {"bigint", "text", "text"},
+                DEFAULT_UPDATE_CHUNK_SIZE);
+    }
+
+    /** Returns orders whose claim lease has run out (their worker died) to {@code PENDING}. */
+    public int releaseExpiredClaims() {
+        String sql = "UPDATE orders SET status = '" + PENDING + "', claim_expires_at = NULL " +
+                "WHERE id IN (SELECT id FROM orders WHERE status = '" + PROCESSING + "' " +
+                "AND claim_expires_at < CURRENT_TIMESTAMP LIMIT ? FOR UPDATE SKIP LOCKED) " +
+                "RETURNING *";
+        int released = 0;
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                Map<String, Integer> updatedByStatus = new TreeMap<>();
+                pstmt.setInt(1, DEFAULT_UPDATE_CHUNK_SIZE);
+                int chunk;
+                do {
+                    chunk = applyStatusChunk(conn, pstmt, updatedByStatus);
+                    released += chunk;
+                } while (chunk == DEFAULT_UPDATE_CHUNK_SIZE);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+            if (released > 0) {
+                log.warn("Released {} orders whose processing claim expired", released);
+            }
+            return released;
+        } catch (SQLException e) {
+            log.error("Error releasing expired claims", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /** Runs one UPDATE ... RETURNING chunk in its own transaction and writes the rows through. */
+    private int applyStatusChunk(Connection conn, PreparedStatement pstmt, Map<String, Integer> updatedByStatus)
+            throws SQLException {
+        List<Order> updated = new ArrayList<>();
+        try (ResultSet rs = pstmt.executeQuery()) {
+            RowMapper<Order> mapper = OrderRowMapper.forResultSet(rs);
+            while (rs.next()) {
+                updated.add(mapper.mapRow(rs));
+            }
+        }
+        if (InvalidationBus.isEnabled()) {
+            List<Long> ids = new ArrayList<>(updated.size());
+            for (Order order : updated) {
+                ids.add(order.getId());
+            }
+            InvalidationBus.publish(conn, InvalidationBus.ChangeType.UPDATE, ids);
+        }
+        conn.commit();
+
+        // Only committed rows go into the near cache
+        for (Order order : updated) {
+            nearCache.put(order);
+            Integer count = updatedByStatus.get(order.getStatus());
+            updatedByStatus.put(order.getStatus(), count == null ? 1 : count + 1);
+        }
+        return updated.size();
+    }
+
+    /** Returns the order, or null if there is none, serving hot ids from the near cache. */
+    public Order getOrderById(long id) {
+        return getOrderById(id, ConsistencyToken.NONE);
+    }
+
+    public Order getOrderById(long id, ConsistencyToken token) {
+        List<Order> orders = getOrdersByIds(Collections.singletonList(id), token);
+        return orders.isEmpty() ? null : orders.get(0);
+    }
+
+    /**
+     * Returns the orders that exist among {@code ids}, in the order the ids were given. Ids not
+     * in the near cache are fetched together in one round trip.
+     */
+    public List<Order> getOrdersByIds(Collection<Long> ids) {
+        return getOrdersByIds(ids, ConsistencyToken.NONE);
+    }
+
+    public List<Order> getOrdersByIds(Collection<Long> ids, ConsistencyToken token) {
+        Map<Long, Order> found = new LinkedHashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        for (Long id : ids) {
+            if (!found.containsKey(id)) {
+                Order cached = nearCache.get(id);
+                found.put(id, cached);
+                if (cached == null) {
+                    missing.add(id);
+                }
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            log.info("READ OPERATION: Getting {} order(s) by id", missing.size());
+            long version = nearCache.version();
+
+            try (Connection conn = readConnection(token);
+                 PreparedStatement pstmt = conn.prepareStatement(SELECT_BY_IDS_SQL)) {
+                logInstance(conn);
+
+                Array idArray = conn.createArrayOf("bigint", missing.toArray());
+                pstmt.setArray(1, idArray);
+
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    RowMapper<Order> mapper = OrderRowMapper.forResultSet(rs);
+                    while (rs.next()) {
+                        Order order = mapper.mapRow(rs);
+                        nearCache.load(order, version);
+                        found.put(order.getId(), order);
+                    }
+                } finally {
+                    idArray.free();
+                }
+            } catch (SQLException e) {
+                log.error("Error getting orders by id", e);
+                throw new RuntimeException(e);
+            }
+        }
+
+        List<Order> orders = new ArrayList<>(found.size());
+        for (Order order : found.values()) {
+            if (order != null) {
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
+
+    public List<Order> getOrderHistory() {
+        return getOrderHistory(ConsistencyToken.NONE);
+    }
+
+    public List<Order> getOrderHistory(ConsistencyToken token) {
+        log.info("READ OPERATION: Getting order history");
+        String sql = "SELECT * FROM orders ORDER BY order_date DESC";
+        List<Order> orders = new ArrayList<>();
+
+        try (Connection conn = readConnection(token);
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+                
+            logInstance(conn);
+            
+            RowMapper<Order> mapper = OrderRowMapper.forResultSet(rs);
+            while (rs.next()) {
+                orders.add(mapper.mapRow(rs));
+            }
+            
+            log.info("Found {} orders", orders.size());
+            return orders;
+        } catch (SQLException e) {
+            log.error("Error getting order history", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    public long streamOrderHistory(Consumer<Order> consumer) {
+        log.info("READ OPERATION: Streaming order history");
+        String sql = "SELECT * FROM orders ORDER BY order_date DESC";
+        long count = 0;
+
+        try (Connection conn = readConnection(ConsistencyToken.NONE)) {
+            // pgjdbc only uses a server-side cursor when autocommit is off and a fetch size is set
+            conn.setAutoCommit(false);
+
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                logInstance(conn);
+
+                pstmt.setFetchSize(STREAM_FETCH_SIZE);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    RowMapper<Order> mapper = OrderRowMapper.forResultSet(rs);
+                    while (rs.next()) {
+                        consumer.accept(mapper.mapRow(rs));
+                        count++;
+                    }
+                }
+                conn.commit();
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            log.info("Streamed {} orders", count);
+            return count;
+        } catch (SQLException e) {
+            log.error("Error streaming order history", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    public Map<String, Object> getSalesReport() {
+        return getSalesReport(ConsistencyToken.NONE);
+    }
+
+    public Map<String, Object> getSalesReport(ConsistencyToken token) {
+        log.info("READ OPERATION: Generating sales report");
+        Map<String, Object> report = new HashMap<>();
+
+        try (Connection conn = readConnection(token);
+             PreparedStatement pstmt = conn.prepareStatement(SALES_REPORT_SQL);
+             ResultSet rs = pstmt.executeQuery()) {
+                
+            logInstance(conn);
+            
+            if (rs.next()) {
+                report.put("totalOrders", rs.getInt("total_orders"));
+                report.put("totalRevenue", rs.getDouble("total_revenue"));
+                report.put("avgOrderValue", rs.getDouble("avg_order_value"));
+            }
+            
+            log.info("Sales report generated: {}", report);
+            return report;
+        } catch (SQLException e) {
+            log.error("Error generating sales report", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    public List<Order> searchOrdersByCustomer(String customerName) {
+        return searchOrdersByCustomer(customerName, ConsistencyToken.NONE);
+    }
+
+    public List<Order> searchOrdersByCustomer(String customerName, ConsistencyToken token) {
+        log.info("READ OPERATION: Searching orders for customer: {}", customerName);
+        List<Order> orders = new ArrayList<>();
+
+        try (Connection conn = readConnection(token);
+             PreparedStatement pstmt = conn.prepareStatement(SEARCH_SQL)) {
+            logInstance(conn);
+            
+            pstmt.setString(1, "%" + customerName + "%");
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                RowMapper<Order> mapper = OrderRowMapper.forResultSet(rs);
+                while (rs.next()) {
+                    orders.add(mapper.mapRow(rs));
+                }
+            }
+            
+            log.info("Found {} orders for customer: {}", orders.size(), customerName);
+            return orders;
+        } catch (SQLException e) {
+            log.error("Error searching orders", e);
+            throw new RuntimeException(e);
+        }
+    }
+    
+
+    public OrderPage getOrderHistoryPage(String pageToken, int pageSize) {
+        return getOrderHistoryPage(pageToken, pageSize, ConsistencyToken.NONE);
+    }
+
+    public OrderPage getOrderHistoryPage(String pageToken, int pageSize, ConsistencyToken token) {
+        log.info("READ OPERATION: Getting order history page of {}", pageSize);
+        return findOrderPage(null, pageToken, pageSize, token);
+    }
+
+    public OrderPage searchOrdersByCustomerPage(String customerName, String pageToken, int pageSize) {
+        return searchOrdersByCustomerPage(customerName, pageToken, pageSize, ConsistencyToken.NONE);
+    }
+
+    public OrderPage searchOrdersByCustomerPage(String customerName, String pageToken, int pageSize,
+                                                ConsistencyToken token) {
+        log.info("READ OPERATION: Searching orders page of {} for customer: {}", pageSize, customerName);
+        return findOrderPage(customerName, pageToken, pageSize, token);
+    }
+
+    private OrderPage findOrderPage(String customerName, String pageToken, int pageSize, ConsistencyToken token) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize must be at least 1");
+        }
+        KeysetCursor cursor = pageToken != null ? KeysetCursor.decode(pageToken) : null;
+
+        List<Order> orders = new ArrayList<>(pageSize + 1);
+
+        try (Connection conn = readConnection(token);
+             PreparedStatement pstmt = conn.prepareStatement(pageSql(customerName != null, cursor != null))) {
+            logInstance(conn);
+
+            int index = 1;
+            if (customerName != null) {
+                pstmt.setString(index++, "%" + customerName + "%");
+            }
+            if (cursor != null) {
+                // Bound as a LocalDateTime: Timestamp would go through the JVM time zone and shift DST gap times
+                pstmt.setObject(index++, cursor.getOrderDate());
+                pstmt.setLong(index++, cursor.getId());
+            }
+            // One extra row tells us whether another page follows
+            pstmt.setInt(index, pageSize + 1);
+
+            try (ResultSet rs = pstmt.executeQuery()) {
+                RowMapper<Order> mapper = OrderRowMapper.forResultSet(rs);
+                while (rs.next()) {
+                    orders.add(mapper.mapRow(rs));
+                }
+            }
+
+            String nextPageToken = null;
+            if (orders.size() > pageSize) {
+                orders.remove(pageSize);
+                nextPageToken = KeysetCursor.after(orders.get(pageSize - 1)).encode();
+            }
+
+            log.info("Found {} orders, more pages: {}", orders.size(), nextPageToken != null);
+            return new OrderPage(orders, nextPageToken);
+        } catch (SQLException e) {
+            log.error("Error getting order page", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    static String pageSql(boolean byCustomer, boolean afterCursor) {
+        // Seek past the last row of the previous page instead of using OFFSET
+        StringBuilder sql = new StringBuilder("SELECT * FROM orders WHERE TRUE");
+        if (byCustomer) {
+            sql.append(" AND customer_name ILIKE ?");
+        }
+        if (afterCursor) {
+            sql.append(" AND (order_date, id) < (?, ?)");
+        }
+        sql.append(" ORDER BY order_date DESC, id DESC LIMIT ?");
+        return sql.toString();
+    }
+
+    /**
+     * Describes the statements of the busiest calls on {@code conn} ahead of the first request:
+     * writes for {@code WRITE}, reads for {@code READ}. This fills pgjdbc's client-side parse cache
+     * for the connection, and the Parse/Describe round trip loads the table's catalog entries into
+     * the backend's caches. It does not create server-side prepared statements; pgjdbc only does
+     * that once a statement has run {@code prepareThreshold} times.
+     */
+    public void prepareStatements(Connection conn, RoutingDataSource.Intent intent) throws SQLException {
+        List<String> statements = new ArrayList<>();
+        if (intent == RoutingDataSource.Intent.WRITE) {
+            // Prepared the way insertOrder prepares it: pgjdbc caches RETURNING statements separately
+            try (PreparedStatement pstmt = conn.prepareStatement(
+                    idAllocator != null ? INSERT_WITH_ID_SQL : INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                pstmt.getParameterMetaData();
+            }
+            statements.add(UPDATE_STATUS_SQL);
+        } else {
+            statements.add(SELECT_BY_IDS_SQL);
+            statements.add(SALES_REPORT_SQL);
+            statements.add(SEARCH_SQL);
+            for (int variant = 0; variant < 4; variant++) {
+                statements.add(pageSql((variant & 1) != 0, (variant & 2) != 0));
+            }
+        }
+        for (String sql : statements) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.getParameterMetaData();
+            }
+        }
+    }
+
+    /**
+     * Called on every connection borrowed for a read, before its first statement. Does nothing
+     * unless a stage needs reads marked, e.g. read-only for the wrapper's read/write splitting.
+     */
+    protected void prepareReadConnection(Connection conn) throws SQLException {
+    }
+
+    private Connection readConnection(ConsistencyToken token) throws SQLException {
+        // Reads go to the reader pool when DatabaseConfig keeps separate writer and reader pools
+        Connection conn = dataSource instanceof RoutingDataSource
+                ? ((RoutingDataSource) dataSource).getConnection(RoutingDataSource.Intent.READ)
+                : dataSource.getConnection();
+        try {
+            prepareReadConnection(conn);
+            if (ReadYourWrites.awaitReplay(conn, token)) {
+                return conn;
+            }
+        } catch (SQLException e) {
+            conn.close();
+            throw e;
+        }
+        // The reader has not replayed the caller's write yet, so read from the writer
+        conn.close();
+        return dataSource.getConnection();
+    }
+
+    private void logInstance(Connection conn) throws SQLException {
+        if (!InstanceRoleResolver.isEnabled()) {
+            InstanceRoleResolver.markUnresolved();
+            return;
+        }
+        if (log.isInfoEnabled()) {
+            log.info("Connection URL: {}", InstanceRoleResolver.describe(conn));
+        } else {
+            InstanceRoleResolver.resolveRole(conn);
+        }
+    }
+}
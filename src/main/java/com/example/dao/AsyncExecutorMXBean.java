@@ -0,0 +1,31 @@
+package com.example.dao;
+
+/**
+ * JMX view of one {@link AsyncOrderDAO} executor, registered as
+ * {@code com.example:type=AsyncOrderDAO,name=<writer|reader>}.
+ */
+public interface AsyncExecutorMXBean {
+
+    /** Threads, equal to the maximum size of the connection pool they draw from. */
+    int getThreads();
+
+    int getActive();
+
+    /** Calls waiting for a thread. */
+    int getQueueDepth();
+
+    int getQueueCapacity();
+
+    long getCompleted();
+
+    /** Calls refused because the queue was full. */
+    long getRejected();
+
+    /** Moving average of the time calls spent queued before a thread picked them up. */
+    double getAverageWaitMillis();
+
+    double getMaxWaitMillis();
+
+    /** Clears the maximum wait, to watch it over a new interval. */
+    void resetMaxWait();
+}
@@ -0,0 +1,307 @@
+package com.example.dao;
+
+import com.example.config.AppConfig;
+import com.example.config.DatabaseConfig;
+import com.example.config.RoutingDataSource;
+import com.example.config.ThreadMode;
+import com.example.model.ConsistencyToken;
+import com.example.model.Order;
+import com.example.model.OrderPage;
+import com.example.model.StatusUpdateResult;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * {@link OrderDAO} with every call returning a {@link CompletableFuture}.
+ *
+ * <p>Calls run on a fixed executor per connection pool with exactly as many threads as the pool
+ * has connections, so excess calls wait in the executor's queue, where their wait is measured,
+ * rather than inside {@code getConnection()}. When reads and writes have separate pools they get
+ * separate executors, so a burst of reports cannot delay order creation.
+ *
+ * <p>Two paths still borrow outside a lane's own pool and can wait there: a read whose
+ * {@link ConsistencyToken} the reader has not replayed yet falls back to a writer connection,
+ * and a write that needs a new block of client-side ids ({@code db.idAllocator.blockSize})
+ * borrows a second writer connection to reserve it. Both compete with the writer lane.
+ *
+ * <p>Each queue holds at most {@code db.async.queueCapacity} calls. Beyond that the returned
+ * future fails at once with a {@link RejectedExecutionException}, which the caller can turn into
+ * a retry or an HTTP 503, rather than letting the backlog (and its latency) grow without bound.
+ * Queue depth and wait time are exposed per executor through JMX.
+ *
+ * <p>With {@code app.threadMode=virtual} the executor threads are virtual threads. The executors
+ * stay pool-sized either way; what virtual threads change is the callers, which can block on the
+ * returned futures by the thousand without a platform thread each.
+ */
+@Slf4j
+public class AsyncOrderDAO implements AutoCloseable {
+    private static final int queueCapacity = Integer.parseInt(AppConfig.getProperty("db.async.queueCapacity", "1000"));
+
+    private final OrderDAO dao;
+    private final Lane writes;
+    private final Lane reads;
+
+    public AsyncOrderDAO() {
+        this(DatabaseConfig.getRoutingDataSource());
+    }
+
+    public AsyncOrderDAO(DataSource dataSource) {
+        this.dao = new OrderDAO(dataSource);
+        if (dataSource instanceof RoutingDataSource && ((RoutingDataSource) dataSource).isSplit()) {
+            RoutingDataSource routing = (RoutingDataSource) dataSource;
+            // Looked up on every call, so the lanes follow a pool replaced at runtime (db.reload)
+            this.writes = new Lane("writer", () -> routing.target(RoutingDataSource.Intent.WRITE));
+            this.reads = new Lane("reader", () -> routing.target(RoutingDataSource.Intent.READ));
+        } else if (dataSource instanceof RoutingDataSource) {
+            RoutingDataSource routing = (RoutingDataSource) dataSource;
+            this.writes = new Lane("writer", () -> routing.target(RoutingDataSource.Intent.WRITE));
+            this.reads = writes;
+        } else {
+            this.writes = new Lane("writer", () -> dataSource);
+            this.reads = writes;
+        }
+    }
+
+    public CompletableFuture<ConsistencyToken> createOrder(Order order) {
+        return writes.submit(() -> dao.createOrder(order));
+    }
+
+    public CompletableFuture<ConsistencyToken> createOrders(List<Order> orders) {
+        return writes.submit(() -> dao.createOrders(orders));
+    }
+
+    public CompletableFuture<ConsistencyToken> updateOrderStatus(Long orderId, String newStatus) {
+        return writes.submit(() -> dao.updateOrderStatus(orderId, newStatus));
+    }
+
+    public CompletableFuture<StatusUpdateResult> updateOrderStatuses(Map<Long, String> newStatuses) {
+        return writes.submit(() -> dao.updateOrderStatuses(newStatuses));
+    }
+
+    public CompletableFuture<StatusUpdateResult> updateStatusWhere(String fromStatus, String toStatus, int limit) {
+        return writes.submit(() -> dao.updateStatusWhere(fromStatus, toStatus, limit));
+    }
+
+    public CompletableFuture<Order> getOrderById(long id) {
+        return getOrderById(id, ConsistencyToken.NONE);
+    }
+
+    public CompletableFuture<Order> getOrderById(long id, ConsistencyToken token) {
+        return reads.submit(() -> dao.getOrderById(id, token));
+    }
+
+    public CompletableFuture<List<Order>> getOrdersByIds(Collection<Long> ids) {
+        return getOrdersByIds(ids, ConsistencyToken.NONE);
+    }
+
+    public CompletableFuture<List<Order>> getOrdersByIds(Collection<Long> ids, ConsistencyToken token) {
+        return reads.submit(() -> dao.getOrdersByIds(ids, token));
+    }
+
+    public CompletableFuture<List<Order>> getOrderHistory() {
+        return getOrderHistory(ConsistencyToken.NONE);
+    }
+
+    public CompletableFuture<List<Order>> getOrderHistory(ConsistencyToken token) {
+        return reads.submit(() -> dao.getOrderHistory(token));
+    }
+
+    public CompletableFuture<Map<String, Object>> getSalesReport() {
+        return getSalesReport(ConsistencyToken.NONE);
+    }
+
+    public CompletableFuture<Map<String, Object>> getSalesReport(ConsistencyToken token) {
+        return reads.submit(() -> dao.getSalesReport(token));
+    }
+
+    public CompletableFuture<List<Order>> searchOrdersByCustomer(String customerName) {
+        return searchOrdersByCustomer(customerName, ConsistencyToken.NONE);
+    }
+
+    public CompletableFuture<List<Order>> searchOrdersByCustomer(String customerName, ConsistencyToken token) {
+        return reads.submit(() -> dao.searchOrdersByCustomer(customerName, token));
+    }
+
+    public CompletableFuture<OrderPage> getOrderHistoryPage(String pageToken, int pageSize) {
+        return getOrderHistoryPage(pageToken, pageSize, ConsistencyToken.NONE);
+    }
+
+    public CompletableFuture<OrderPage> getOrderHistoryPage(String pageToken, int pageSize, ConsistencyToken token) {
+        return reads.submit(() -> dao.getOrderHistoryPage(pageToken, pageSize, token));
+    }
+
+    public CompletableFuture<OrderPage> searchOrdersByCustomerPage(String customerName, String pageToken, int pageSize) {
+        return searchOrdersByCustomerPage(customerName, pageToken, pageSize, ConsistencyToken.NONE);
+    }
+
+    public CompletableFuture<OrderPage> searchOrdersByCustomerPage(String customerName, String pageToken, int pageSize,
+                                                                   ConsistencyToken token) {
+        return reads.submit(() -> dao.searchOrdersByCustomerPage(customerName, pageToken, pageSize, token));
+    }
+
+    /**
+     * Stops accepting calls and waits for queued ones to finish. If the calling thread is
+     * interrupted it stops waiting and returns with the interrupt flag set; queued calls still run.
+     */
+    @Override
+    public void close() {
+        writes.close();
+        if (reads != writes) {
+            reads.close();
+        }
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        if (dataSource instanceof HikariDataSource) {
+            return ((HikariDataSource) dataSource).getMaximumPoolSize();
+        }
+        return Integer.parseInt(AppConfig.getProperty("db.async.threads", "5"));
+    }
+
+    private static final class Lane implements AsyncExecutorMXBean {
+        // Weight of the newest sample in the moving average of queue wait
+        private static final double ALPHA = 0.05;
+
+        private final String name;
+        private final Supplier<DataSource> pool;
+        private final ThreadPoolExecutor executor;
+        private final AtomicLong rejected = new AtomicLong();
+        private volatile double averageWaitMillis;
+        private volatile double maxWaitMillis;
+
+        private Lane(String name, Supplier<DataSource> pool) {
+            int threads = poolSize(pool.get());
+            this.name = name;
+            this.pool = pool;
+            this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), ThreadMode.configured().factory("order-async-" + name));
+            try {
+                ManagementFactory.getPlatformMBeanServer()
+                        .registerMBean(this, new ObjectName("com.example:type=AsyncOrderDAO,name=" + name));
+            } catch (JMException e) {
+                log.warn("Could not register async {} executor MBean", name, e);
+            }
+            log.info("Async {} executor started with {} threads and a queue of {}", name, threads, queueCapacity);
+        }
+
+        private <T> CompletableFuture<T> submit(Supplier<T> call) {
+            followPoolSize();
+            CompletableFuture<T> future = new CompletableFuture<>();
+            long queuedAt = System.nanoTime();
+            try {
+                executor.execute(() -> {
+                    recordWait((System.nanoTime() - queuedAt) / 1e6);
+                    try {
+                        future.complete(call.get());
+                    } catch (Throwable e) {
+                        future.completeExceptionally(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rejected.incrementAndGet();
+                future.completeExceptionally(e);
+            }
+            return future;
+        }
+
+        /** Keeps one thread per connection when the pool is resized at runtime (db.poolSizing). */
+        private void followPoolSize() {
+            int size = poolSize(pool.get());
+            if (size == executor.getMaximumPoolSize()) {
+                return;
+            }
+            synchronized (executor) {
+                if (size > executor.getMaximumPoolSize()) {
+                    executor.setMaximumPoolSize(size);
+                    executor.setCorePoolSize(size);
+                } else if (size < executor.getMaximumPoolSize()) {
+                    executor.setCorePoolSize(size);
+                    executor.setMaximumPoolSize(size);
+                }
+            }
+        }
+
+        private void recordWait(double waitMillis) {
+            // Racy updates only blur the statistics, which is fine for tuning
+            averageWaitMillis += ALPHA * (waitMillis - averageWaitMillis);
+            if (waitMillis > maxWaitMillis) {
+                maxWaitMillis = waitMillis;
+            }
+        }
+
+        private void close() {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            try {
+                ManagementFactory.getPlatformMBeanServer()
+                        .unregisterMBean(new ObjectName("com.example:type=AsyncOrderDAO,name=" + name));
+            } catch (JMException e) {
+                // Not registered
+            }
+        }
+
+        @Override
+        public int getThreads() {
+            return executor.getMaximumPoolSize();
+        }
+
+        @Override
+        public int getActive() {
+            return executor.getActiveCount();
+        }
+
+        @Override
+        public int getQueueDepth() {
+            return executor.getQueue().size();
+        }
+
+        @Override
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        @Override
+        public long getCompleted() {
+            return executor.getCompletedTaskCount();
+        }
+
+        @Override
+        public long getRejected() {
+            return rejected.get();
+        }
+
+        @Override
+        public double getAverageWaitMillis() {
+            return averageWaitMillis;
+        }
+
+        @Override
+        public double getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        @Override
+        public void resetMaxWait() {
+            maxWaitMillis = 0;
+        }
+    }
+}
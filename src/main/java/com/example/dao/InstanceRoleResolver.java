@@ -0,0 +1,132 @@
+package com.example.dao;
+
+import com.example.config.AppConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Resolves whether a connection points at the WRITER or a READER instance.
+ *
+ * <p>The role is cached per physical instance URL, so {@code pg_is_in_recovery()} runs once per
+ * host instead of once per DAO call. With read/write splitting the URL reported by the connection
+ * changes when {@code setReadOnly} switches hosts, so the lookup follows the switch. Entries expire
+ * after {@code db.roleDetection.ttlSeconds} and are all dropped when a connection error signals a
+ * failover, since the writer may have moved.
+ *
+ * <p>{@code db.roleDetection} selects the mode: {@code cached} (default), {@code query} to check
+ * on every call, or {@code off} to skip role detection and its log line entirely.
+ */
+@Slf4j
+public final class InstanceRoleResolver {
+    public enum Mode { CACHED, QUERY, OFF }
+
+    public static final String UNRESOLVED = "UNRESOLVED";
+
+    private static final Mode mode = Mode.valueOf(
+            AppConfig.getProperty("db.roleDetection", "cached").trim().toUpperCase(Locale.ROOT));
+    private static final long ttlNanos = TimeUnit.SECONDS.toNanos(
+            Long.parseLong(AppConfig.getProperty("db.roleDetection.ttlSeconds", "60")));
+    private static final ConcurrentMap<String, CachedRole> roles = new ConcurrentHashMap<>();
+    private static final ThreadLocal<String> lastRole = new ThreadLocal<>();
+
+    private InstanceRoleResolver() {
+    }
+
+    public static boolean isEnabled() {
+        return mode != Mode.OFF;
+    }
+
+    public static String describe(Connection conn) throws SQLException {
+        String url = conn.getMetaData().getURL();
+        return "\n    → " + resolveRole(conn, url) + ": " + url;
+    }
+
+    public static String resolveRole(Connection conn) throws SQLException {
+        return resolveRole(conn, conn.getMetaData().getURL());
+    }
+
+    public static String resolveRole(Connection conn, String url) throws SQLException {
+        String role = lookupRole(conn, url);
+        lastRole.set(role);
+        return role;
+    }
+
+    /**
+     * Role most recently resolved on the calling thread, {@link #UNRESOLVED} if role detection is
+     * off, or null if the thread used no connection since {@link #clearLastResolvedRole()}. Lets
+     * callers attribute a DAO call to WRITER or READER.
+     */
+    public static String lastResolvedRole() {
+        return lastRole.get();
+    }
+
+    public static void clearLastResolvedRole() {
+        lastRole.remove();
+    }
+
+    /**
+     * Records that the calling thread ran a statement on a connection whose role was not resolved
+     * because {@code db.roleDetection=off}; {@link #lastResolvedRole()} then returns
+     * {@link #UNRESOLVED} rather than null.
+     */
+    public static void markUnresolved() {
+        lastRole.set(UNRESOLVED);
+    }
+
+    private static String lookupRole(Connection conn, String url) {
+        if (mode == Mode.CACHED) {
+            CachedRole cached = roles.get(url);
+            if (cached != null && cached.expiresAt - System.nanoTime() > 0) {
+                return cached.role;
+            }
+        }
+
+        // Query Aurora to determine if this is a reader or writer instance
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT pg_is_in_recovery()")) {
+            if (rs.next()) {
+                String role = rs.getBoolean(1) ? "READER" : "WRITER";
+                if (mode == Mode.CACHED) {
+                    roles.put(url, new CachedRole(role, System.nanoTime() + ttlNanos));
+                }
+                return role;
+            }
+        } catch (SQLException e) {
+            // Fallback to URL parsing if Aurora query fails
+            if (url.contains("reader")) {
+                return "READER";
+            }
+        }
+
+        return "WRITER";
+    }
+
+    public static void invalidate(String url) {
+        roles.remove(url);
+    }
+
+    public static void invalidateAll() {
+        if (!roles.isEmpty()) {
+            roles.clear();
+            log.info("Instance role cache cleared");
+        }
+    }
+
+    private static final class CachedRole {
+        private final String role;
+        private final long expiresAt;
+
+        private CachedRole(String role, long expiresAt) {
+            this.role = role;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
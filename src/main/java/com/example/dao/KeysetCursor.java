@@ -0,0 +1,55 @@
+package com.example.dao;
+
+import com.example.model.Order;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * Position in the {@code (order_date DESC, id DESC)} ordering, encoded as an opaque page token.
+ * The next page starts strictly after this position, so each page is an index range scan no
+ * matter how deep it is.
+ */
+public final class KeysetCursor {
+    private final LocalDateTime orderDate;
+    private final long id;
+
+    private KeysetCursor(LocalDateTime orderDate, long id) {
+        this.orderDate = orderDate;
+        this.id = id;
+    }
+
+    public static KeysetCursor after(Order order) {
+        // order_date is NOT NULL, so only an order that was never read back has none
+        if (order.getOrderDate() == null || order.getId() == null) {
+            throw new IllegalArgumentException("Order " + order.getId() + " has no order date or id to page after");
+        }
+        return new KeysetCursor(order.getOrderDate(), order.getId());
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            return new KeysetCursor(
+                    LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid page token: " + token, e);
+        }
+    }
+
+    public String encode() {
+        String value = orderDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public LocalDateTime getOrderDate() {
+        return orderDate;
+    }
+
+    public long getId() {
+        return id;
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.dao;
+
+import com.example.cache.InvalidationBus;
+import com.example.cache.QueryResultCache;
+import com.example.config.DatabaseConfig;
+import com.example.model.Order;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.core.BaseConnection;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Bulk-loads orders through PostgreSQL {@code COPY FROM STDIN}.
+ *
+ * <p>Connections come from the same data source as {@link OrderDAO}'s writes, but COPY needs the
+ * pgjdbc connection unwrapped from the Hikari / AWS JDBC Wrapper proxies, so the COPY itself is not
+ * seen by wrapper plugins such as the result cache. Loads therefore invalidate this node's cached
+ * {@code orders} query results themselves and publish the insert on the {@link InvalidationBus}
+ * for other nodes. A failover during a load aborts the COPY and nothing is committed; callers
+ * retry the whole load.
+ *
+ * <p>Instances reuse one encode buffer and are not thread-safe.
+ */
+@Slf4j
+public class OrderCopyLoader {
+    private static final String COPY_SQL =
+            "COPY orders (customer_name, product, quantity, total_amount, status) FROM STDIN";
+    private static final String COPY_CSV_SQL =
+            "COPY orders (customer_name, product, quantity, total_amount, status) FROM STDIN WITH (FORMAT csv%s)";
+    private static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    private static final double MAX_AMOUNT = Long.MAX_VALUE / 100;
+
+    private final DataSource dataSource;
+    private final byte[] buffer;
+    private int position;
+    private long bytesSent;
+    private CopyIn copyIn;
+
+    public OrderCopyLoader() {
+        this(DatabaseConfig.getRoutingDataSource());
+    }
+
+    public OrderCopyLoader(DataSource dataSource) {
+        this(dataSource, DEFAULT_BUFFER_SIZE);
+    }
+
+    public OrderCopyLoader(DataSource dataSource, int bufferSize) {
+        this.dataSource = dataSource;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * Streams orders into the table in COPY text format. Ids and order dates are assigned by the
+     * database and are not written back onto the {@link Order} objects.
+     */
+    public long load(Iterator<Order> orders) {
+        log.info("WRITE OPERATION: Bulk loading orders with COPY");
+        long start = System.nanoTime();
+
+        try (Connection conn = dataSource.getConnection()) {
+            CopyManager copyManager = new CopyManager(conn.unwrap(BaseConnection.class));
+            copyIn = copyManager.copyIn(COPY_SQL);
+            position = 0;
+            bytesSent = 0;
+            try {
+                long row = 0;
+                while (orders.hasNext()) {
+                    encodeRow(orders.next(), ++row);
+                }
+                flush();
+                long rows = copyIn.endCopy();
+                invalidateCaches(conn);
+                report(rows, bytesSent, start);
+                return rows;
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+                copyIn = null;
+            }
+        } catch (SQLException e) {
+            log.error("Error bulk loading orders", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Streams a CSV file with columns customer_name, product, quantity, total_amount, status
+     * straight to the server without parsing it on the client.
+     */
+    public long loadCsv(Path file, boolean header) {
+        log.info("WRITE OPERATION: Bulk loading orders from {}", file);
+        long start = System.nanoTime();
+
+        try (Connection conn = dataSource.getConnection();
+             Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            CopyManager copyManager = new CopyManager(conn.unwrap(BaseConnection.class));
+            long rows = copyManager.copyIn(String.format(COPY_CSV_SQL, header ? ", HEADER" : ""), reader, buffer.length);
+            invalidateCaches(conn);
+            report(rows, Files.size(file), start);
+            return rows;
+        } catch (SQLException | IOException e) {
+            log.error("Error bulk loading orders from {}", file, e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void invalidateCaches(Connection conn) throws SQLException {
+        QueryResultCache.get().invalidate(Collections.singleton("orders"));
+        // The connection is in auto-commit, so other nodes hear of the load right away
+        InvalidationBus.publishInserts(conn);
+    }
+
+    /** The COPY text row {@link #load} sends for {@code order}; must fit in the buffer. */
+    byte[] encode(Order order) throws SQLException {
+        position = 0;
+        encodeRow(order, 1);
+        byte[] row = Arrays.copyOf(buffer, position);
+        position = 0;
+        return row;
+    }
+
+    private void encodeRow(Order order, long row) throws SQLException {
+        putText(order.getCustomerName());
+        put((byte) '\t');
+        putText(order.getProduct());
+        put((byte) '\t');
+        if (order.getQuantity() == null) {
+            putNull();
+        } else {
+            putLong(order.getQuantity());
+        }
+        put((byte) '\t');
+        if (order.getTotalAmount() == null) {
+            putNull();
+        } else {
+            double amount = order.getTotalAmount();
+            // Also false for NaN; past this Math.round saturates instead of failing like an INSERT
+            if (!(Math.abs(amount) < MAX_AMOUNT)) {
+                throw new SQLException("Row " + row + " of the COPY load has total_amount " + amount
+                        + ", which is not a storable amount", "22003");
+            }
+            putCents(Math.round(amount * 100));
+        }
+        put((byte) '\t');
+        putText(order.getStatus());
+        put((byte) '\n');
+    }
+
+    private void putText(String value) throws SQLException {
+        if (value == null) {
+            putNull();
+            return;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\': put((byte) '\\'); put((byte) '\\'); break;
+                case '\t': put((byte) '\\'); put((byte) 't'); break;
+                case '\n': put((byte) '\\'); put((byte) 'n'); break;
+                case '\r': put((byte) '\\'); put((byte) 'r'); break;
+                default:
+                    if (c < 0x80) {
+                        put((byte) c);
+                    } else if (c < 0x800) {
+                        put((byte) (0xC0 | (c >> 6)));
+                        put((byte) (0x80 | (c & 0x3F)));
+                    } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                            && Character.isLowSurrogate(value.charAt(i + 1))) {
+                        int cp = Character.toCodePoint(c, value.charAt(++i));
+                        put((byte) (0xF0 | (cp >> 18)));
+                        put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                        put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                        put((byte) (0x80 | (cp & 0x3F)));
+                    } else if (Character.isSurrogate(c)) {
+                        // A lone surrogate has no UTF-8 encoding; send the replacement character U+FFFD
+                        put((byte) 0xEF);
+                        put((byte) 0xBF);
+                        put((byte) 0xBD);
+                    } else {
+                        put((byte) (0xE0 | (c >> 12)));
+                        put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                        put((byte) (0x80 | (c & 0x3F)));
+                    }
+            }
+        }
+    }
+
+    private void putNull() throws SQLException {
+        put((byte) '\\');
+        put((byte) 'N');
+    }
+
+    private void putCents(long cents) throws SQLException {
+        if (cents < 0) {
+            put((byte) '-');
+            cents = -cents;
+        }
+        putLong(cents / 100);
+        long fraction = cents % 100;
+        put((byte) '.');
+        put((byte) ('0' + fraction / 10));
+        put((byte) ('0' + fraction % 10));
+    }
+
+    private void putLong(long value) throws SQLException {
+        if (value < 0) {
+            put((byte) '-');
+            value = -value;
+        }
+        if (value >= 10) {
+            putLong(value / 10);
+        }
+        put((byte) ('0' + value % 10));
+    }
+
+    private void put(byte b) throws SQLException {
+        if (position == buffer.length) {
+            flush();
+        }
+        buffer[position++] = b;
+    }
+
+    private void flush() throws SQLException {
+        if (position > 0) {
+            copyIn.writeToCopy(buffer, 0, position);
+            bytesSent += position;
+            position = 0;
+        }
+    }
+
+    private static void report(long rows, long bytes, long startNanos) {
+        double seconds = Math.max(System.nanoTime() - startNanos, 1) / 1_000_000_000.0;
+        log.info("Bulk loaded {} orders ({} bytes) in {} ms: {} rows/sec, {} bytes/sec",
+                rows, bytes, Math.round(seconds * 1000), Math.round(rows / seconds), Math.round(bytes / seconds));
+    }
+}
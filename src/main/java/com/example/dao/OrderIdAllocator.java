@@ -0,0 +1,133 @@
+package com.example.dao;
+
+import com.example.config.AppConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out {@code orders.id} values reserved from the table's own sequence in blocks, so an order's
+ * id is known before its insert runs instead of coming from the column default. Enabled with
+ * {@code db.idAllocator.blockSize} greater than 0.
+ *
+ * <p>One round trip reserves a whole block with {@code nextval} over {@code generate_series}.
+ * Threads then take ids from the block with a single atomic increment; only the thread that finds
+ * it exhausted reserves the next one. Because the ids come from the same sequence as the
+ * {@code SERIAL} default, they never collide with rows inserted without an explicit id, even from
+ * nodes that do not use the allocator.
+ *
+ * <p>Ids that are reserved but never inserted (a crash, a failover or a shutdown with part of a
+ * block left) are simply skipped, so the table can have gaps; ids were never dense anyway. What
+ * must not happen is an id handed out twice: {@code nextval} alone does not flush WAL, so a crash
+ * right after a reservation could let the sequence reissue the block. The reservation therefore
+ * commits a transaction with an assigned transaction id, which makes the commit wait for the
+ * sequence advance to be durable. Callers still {@link #discard} the block after a connection
+ * error or a duplicate key, as a second line of defence.
+ */
+@Slf4j
+public final class OrderIdAllocator {
+    private static final int blockSize = Integer.parseInt(AppConfig.getProperty("db.idAllocator.blockSize", "0"));
+
+    private final DataSource dataSource;
+    // Not synchronized: a virtual thread blocked on the reservation query would pin its carrier
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private volatile Block block = Block.EMPTY;
+
+    private OrderIdAllocator(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /** Returns an allocator for {@code dataSource}, or null when client-side allocation is off. */
+    public static OrderIdAllocator createIfEnabled(DataSource dataSource) {
+        return blockSize > 0 ? new OrderIdAllocator(dataSource) : null;
+    }
+
+    public long nextId() {
+        while (true) {
+            Block current = block;
+            long id = current.next();
+            if (id > 0) {
+                return id;
+            }
+            refill(current);
+        }
+    }
+
+    /** Drops the rest of the current block; the next id comes from a fresh reservation. */
+    public void discard() {
+        block = Block.EMPTY;
+    }
+
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            // Another thread may have refilled while this one waited for the lock
+            if (block == exhausted) {
+                block = reserve();
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private Block reserve() {
+        String sql = "SELECT nextval(pg_get_serial_sequence('orders', 'id')) FROM generate_series(1, ?)";
+        long[] ids = new long[blockSize];
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement pstmt = conn.prepareStatement(sql);
+                 Statement stmt = conn.createStatement()) {
+                pstmt.setInt(1, blockSize);
+                int count = 0;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        ids[count++] = rs.getLong(1);
+                    }
+                }
+                if (count != blockSize) {
+                    throw new SQLException("Expected " + blockSize + " ids but received " + count);
+                }
+                // Forces a durable commit, and with it the sequence advance
+                stmt.executeQuery("SELECT txid_current()").close();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+
+            log.debug("Reserved {} order ids starting at {}", blockSize, ids[0]);
+            return new Block(ids);
+        } catch (SQLException e) {
+            log.error("Error reserving order ids", e);
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static final class Block {
+        private static final Block EMPTY = new Block(new long[0]);
+
+        // Usually one contiguous range, but nextval calls from other sessions can interleave
+        private final long[] ids;
+        private final AtomicInteger next = new AtomicInteger();
+
+        private Block(long[] ids) {
+            this.ids = ids;
+        }
+
+        /** The next unused id, or 0 once the block is used up. */
+        private long next() {
+            int index = next.getAndIncrement();
+            return index < ids.length ? ids[index] : 0;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.example.dao;
+
+import com.example.model.Order;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shared {@link RowMapper} for {@code orders} rows.
+ *
+ * <p>Column positions are resolved once per result set shape (the ordered column labels) and
+ * cached, so mapping a row reads every column by index with primitive getters instead of
+ * resolving names row by row. The DAO's queries produce a handful of shapes; the cache stops
+ * growing at {@link #MAX_PLANS} so ad hoc column lists cannot fill the heap, and shapes beyond
+ * that are resolved on every call.
+ */
+public final class OrderRowMapper implements RowMapper<Order> {
+    static final int MAX_PLANS = 64;
+
+    private static final ConcurrentMap<String, OrderRowMapper> plans = new ConcurrentHashMap<>();
+
+    private final int id;
+    private final int customerName;
+    private final int product;
+    private final int quantity;
+    private final int totalAmount;
+    private final int status;
+    private final int orderDate;
+
+    private OrderRowMapper(ResultSetMetaData metaData) throws SQLException {
+        this.id = indexOf(metaData, "id");
+        this.customerName = indexOf(metaData, "customer_name");
+        this.product = indexOf(metaData, "product");
+        this.quantity = indexOf(metaData, "quantity");
+        this.totalAmount = indexOf(metaData, "total_amount");
+        this.status = indexOf(metaData, "status");
+        this.orderDate = indexOf(metaData, "order_date");
+    }
+
+    /**
+     * Returns the mapping plan for the shape of this result set. Call once per result set, then
+     * {@link #mapRow} for each row.
+     */
+    public static OrderRowMapper forResultSet(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        String shape = shapeOf(metaData);
+        OrderRowMapper plan = plans.get(shape);
+        if (plan == null) {
+            plan = new OrderRowMapper(metaData);
+            // Racing threads may overshoot the bound by a few entries, which is harmless
+            if (plans.size() < MAX_PLANS) {
+                OrderRowMapper existing = plans.putIfAbsent(shape, plan);
+                if (existing != null) {
+                    plan = existing;
+                }
+            }
+        }
+        return plan;
+    }
+
+    static int cachedPlans() {
+        return plans.size();
+    }
+
+    @Override
+    public Order mapRow(ResultSet rs) throws SQLException {
+        return new Order(
+            rs.getLong(id),
+            rs.getString(customerName),
+            rs.getString(product),
+            rs.getInt(quantity),
+            rs.getDouble(totalAmount),
+            rs.getString(status),
+            rs.getObject(orderDate, LocalDateTime.class)
+        );
+    }
+
+    private static String shapeOf(ResultSetMetaData metaData) throws SQLException {
+        int columns = metaData.getColumnCount();
+        StringBuilder shape = new StringBuilder(columns * 12);
+        for (int i = 1; i <= columns; i++) {
+            shape.append(metaData.getColumnLabel(i)).append(',');
+        }
+        return shape.toString();
+    }
+
+    private static int indexOf(ResultSetMetaData metaData, String column) throws SQLException {
+        for (int i = 1; i <= metaData.getColumnCount(); i++) {
+            if (column.equalsIgnoreCase(metaData.getColumnLabel(i))) {
+                return i;
+            }
+        }
+        throw new SQLException("Column '" + column + "' not found in result set");
+    }
+}
@@ -0,0 +1,239 @@
+package com.example.dao;
+
+import com.example.config.AppConfig;
+import com.example.model.Order;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Write-behind front end for {@link OrderDAO#createOrder} that group-commits orders submitted
+ * concurrently by many threads.
+ *
+ * <p>{@link #submit} queues the order and returns at once. Flusher threads
+ * ({@code db.writeBuffer.flushers}) each take the orders that arrive within
+ * {@code db.writeBuffer.maxDelayMs} of the first one, up to {@code db.writeBuffer.maxBatchSize},
+ * and insert them with {@link OrderDAO#createOrders} as one transaction, so a burst costs one
+ * commit per batch instead of one per order. Each future completes with its order once that
+ * commit succeeds, its id and order date filled in.
+ *
+ * <p>If a batch fails because of the data in it (SQLState classes 22 and 23), its orders are
+ * retried one by one so a single bad order fails only its own future. Any other failure, such as a
+ * connection lost in a failover, fails every future of the batch with that error; after a
+ * {@code 08007} (transaction resolution unknown) the orders may or may not have been committed.
+ * Submissions block when {@code db.writeBuffer.capacity} orders are already waiting.
+ */
+@Slf4j
+public class OrderWriteBuffer implements OrderWriteBufferMXBean, AutoCloseable {
+    private final int maxBatchSize = Integer.parseInt(AppConfig.getProperty("db.writeBuffer.maxBatchSize", "100"));
+    private final long maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(
+            Long.parseLong(AppConfig.getProperty("db.writeBuffer.maxDelayMs", "5")));
+    private final int flushers = Integer.parseInt(AppConfig.getProperty("db.writeBuffer.flushers", "2"));
+
+    private final OrderDAO dao;
+    private final BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(
+            Integer.parseInt(AppConfig.getProperty("db.writeBuffer.capacity", "10000")));
+    private final List<Thread> threads = new ArrayList<>();
+    private final AtomicLong batchesCommitted = new AtomicLong();
+    private final AtomicLong ordersCommitted = new AtomicLong();
+    private final AtomicLong ordersFailed = new AtomicLong();
+    private volatile boolean closed;
+
+    public OrderWriteBuffer(OrderDAO dao) {
+        this.dao = dao;
+        for (int i = 0; i < flushers; i++) {
+            Thread thread = new Thread(this::flushLoop, "order-write-buffer-" + (i + 1));
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(this, new ObjectName("com.example:type=OrderWriteBuffer"));
+        } catch (JMException e) {
+            log.warn("Could not register order write buffer MBean", e);
+        }
+    }
+
+    /** Queues the order for the next batch, waiting for room if the buffer is full. */
+    public CompletableFuture<Order> submit(Order order) {
+        CompletableFuture<Order> future = new CompletableFuture<>();
+        if (closed) {
+            future.completeExceptionally(new IllegalStateException("Order write buffer is closed"));
+            return future;
+        }
+        Pending pending = new Pending(order, future);
+        try {
+            queue.put(pending);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.completeExceptionally(e);
+            return future;
+        }
+        // close() may have drained the queue between the check above and the put; whoever
+        // removes the order from the queue completes its future
+        if (closed && queue.remove(pending)) {
+            ordersFailed.incrementAndGet();
+            future.completeExceptionally(new IllegalStateException("Order write buffer is closed"));
+        }
+        return future;
+    }
+
+    /**
+     * Stops accepting orders and waits for those already queued to be written. If the calling
+     * thread is interrupted it stops waiting, fails the orders still queued and returns with the
+     * interrupt flag set.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        try {
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything that slipped in while the flushers were stopping
+        Pending pending;
+        while ((pending = queue.poll()) != null) {
+            ordersFailed.incrementAndGet();
+            pending.future.completeExceptionally(new IllegalStateException("Order write buffer is closed"));
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .unregisterMBean(new ObjectName("com.example:type=OrderWriteBuffer"));
+        } catch (JMException e) {
+            // Not registered
+        }
+    }
+
+    private void flushLoop() {
+        List<Pending> batch = new ArrayList<>(maxBatchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // The commit window opens with the first order of the batch
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    Pending next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // close() interrupts the flushers; keep draining what was already submitted
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        List<Order> orders = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            orders.add(pending.order);
+        }
+        try {
+            dao.createOrders(orders);
+        } catch (RuntimeException e) {
+            if (isDataError(e) && batch.size() > 1) {
+                log.warn("Batch of {} orders rejected, retrying them one by one: {}", batch.size(), e.getMessage());
+                for (Pending pending : batch) {
+                    writeOne(pending);
+                }
+            } else {
+                for (Pending pending : batch) {
+                    pending.future.completeExceptionally(e);
+                }
+                ordersFailed.addAndGet(batch.size());
+            }
+            return;
+        }
+        batchesCommitted.incrementAndGet();
+        ordersCommitted.addAndGet(batch.size());
+        for (Pending pending : batch) {
+            pending.future.complete(pending.order);
+        }
+    }
+
+    private void writeOne(Pending pending) {
+        try {
+            dao.createOrder(pending.order);
+            batchesCommitted.incrementAndGet();
+            ordersCommitted.incrementAndGet();
+            pending.future.complete(pending.order);
+        } catch (RuntimeException e) {
+            ordersFailed.incrementAndGet();
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    private static boolean isDataError(RuntimeException e) {
+        if (!(e.getCause() instanceof SQLException)) {
+            return false;
+        }
+        String state = ((SQLException) e.getCause()).getSQLState();
+        return state != null && (state.startsWith("22") || state.startsWith("23"));
+    }
+
+    @Override
+    public int getPending() {
+        return queue.size();
+    }
+
+    @Override
+    public long getBatchesCommitted() {
+        return batchesCommitted.get();
+    }
+
+    @Override
+    public long getOrdersCommitted() {
+        return ordersCommitted.get();
+    }
+
+    @Override
+    public double getAverageBatchSize() {
+        long batches = batchesCommitted.get();
+        return batches == 0 ? 0 : (double) ordersCommitted.get() / batches;
+    }
+
+    @Override
+    public long getOrdersFailed() {
+        return ordersFailed.get();
+    }
+
+    private static final class Pending {
+        private final Order order;
+        private final CompletableFuture<Order> future;
+
+        private Pending(Order order, CompletableFuture<Order> future) {
+            this.order = order;
+            this.future = future;
+        }
+    }
+}
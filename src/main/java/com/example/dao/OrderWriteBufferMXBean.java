@@ -0,0 +1,19 @@
+package com.example.dao;
+
+/**
+ * JMX view of the order write-behind buffer, registered as {@code com.example:type=OrderWriteBuffer}.
+ */
+public interface OrderWriteBufferMXBean {
+
+    /** Orders submitted and not yet committed or failed. */
+    int getPending();
+
+    long getBatchesCommitted();
+
+    long getOrdersCommitted();
+
+    double getAverageBatchSize();
+
+    /** Orders whose future completed exceptionally. */
+    long getOrdersFailed();
+}
@@ -0,0 +1,85 @@
+package com.example.dao;
+
+import com.example.config.AppConfig;
+import com.example.model.ConsistencyToken;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Read-your-writes support based on WAL positions.
+ *
+ * <p>When {@code db.readYourWrites=true}, writes capture {@code pg_current_wal_lsn()} after they
+ * commit, which costs one extra round trip per write. Reads given that token check
+ * {@code pg_last_wal_replay_lsn()} on the reader they were routed to and poll for up to
+ * {@code db.readYourWrites.maxWaitMs} for replay to catch up. If it does not, the DAO retries on
+ * the writer. The writer always reports that it is caught up.
+ *
+ * <p>This relies on PostgreSQL streaming replication, e.g. a local primary with a streaming
+ * replica. Aurora replicas share storage and do not replay WAL, so on Aurora
+ * {@code pg_last_wal_replay_lsn()} may not reflect replica lag.
+ */
+@Slf4j
+public final class ReadYourWrites {
+    private static final boolean enabled =
+            Boolean.parseBoolean(AppConfig.getProperty("db.readYourWrites", "false"));
+    private static final long maxWaitMillis =
+            Long.parseLong(AppConfig.getProperty("db.readYourWrites.maxWaitMs", "200"));
+    private static final long pollMillis =
+            Long.parseLong(AppConfig.getProperty("db.readYourWrites.pollMs", "10"));
+
+    private ReadYourWrites() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Token for everything committed on this connection so far. Call after the commit.
+     */
+    public static ConsistencyToken captureToken(Connection conn) throws SQLException {
+        if (!enabled) {
+            return ConsistencyToken.NONE;
+        }
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT pg_current_wal_lsn()")) {
+            return rs.next() ? ConsistencyToken.parse(rs.getString(1)) : ConsistencyToken.NONE;
+        }
+    }
+
+    /**
+     * Waits, bounded by the configured maximum, until the instance behind {@code conn} has replayed
+     * the token. Returns false if it is still behind, in which case the caller should read from the
+     * writer instead.
+     */
+    public static boolean awaitReplay(Connection conn, ConsistencyToken token) throws SQLException {
+        if (token == null || token.isNone()) {
+            return true;
+        }
+        long deadline = System.nanoTime() + maxWaitMillis * 1_000_000L;
+        try (Statement stmt = conn.createStatement()) {
+            while (true) {
+                try (ResultSet rs = stmt.executeQuery("SELECT pg_is_in_recovery(), pg_last_wal_replay_lsn()")) {
+                    rs.next();
+                    if (!rs.getBoolean(1) || token.isReplayedBy(rs.getString(2))) {
+                        return true;
+                    }
+                }
+                if (System.nanoTime() - deadline >= 0) {
+                    log.info("Reader has not replayed {} after {} ms, falling back to writer", token, maxWaitMillis);
+                    return false;
+                }
+                try {
+                    Thread.sleep(pollMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+            }
+        }
+    }
+}
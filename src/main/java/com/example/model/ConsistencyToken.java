@@ -0,0 +1,55 @@
+package com.example.model;
+
+import lombok.EqualsAndHashCode;
+
+/**
+ * WAL position of a committed write. A read that passes the token back is served by an instance
+ * that has replayed at least up to this position, so it sees the write.
+ *
+ * <p>{@link #toString()} gives the PostgreSQL LSN text form (e.g. {@code 0/16B3748}), which can be
+ * handed to clients and turned back into a token with {@link #parse(String)}.
+ */
+@EqualsAndHashCode
+public final class ConsistencyToken {
+    public static final ConsistencyToken NONE = new ConsistencyToken(0);
+
+    private final long position;
+
+    private ConsistencyToken(long position) {
+        this.position = position;
+    }
+
+    public static ConsistencyToken parse(String lsn) {
+        if (lsn == null || lsn.isEmpty()) {
+            return NONE;
+        }
+        int slash = lsn.indexOf('/');
+        if (slash < 0) {
+            throw new IllegalArgumentException("Invalid LSN: " + lsn);
+        }
+        long high = Long.parseLong(lsn.substring(0, slash), 16);
+        long low = Long.parseLong(lsn.substring(slash + 1), 16);
+        return new ConsistencyToken((high << 32) | low);
+    }
+
+    public boolean isNone() {
+        return position == 0;
+    }
+
+    /**
+     * True if an instance that has replayed up to {@code replayedLsn} can see this write.
+     */
+    public boolean isReplayedBy(String replayedLsn) {
+        // LSNs are unsigned 64-bit positions
+        return isNone() || (replayedLsn != null && Long.compareUnsigned(parse(replayedLsn).position, position) >= 0);
+    }
+
+    public ConsistencyToken max(ConsistencyToken other) {
+        return Long.compareUnsigned(other.position, position) > 0 ? other : this;
+    }
+
+    @Override
+    public String toString() {
+        return Long.toHexString(position >>> 32).toUpperCase() + "/" + Long.toHexString(position & 0xFFFFFFFFL).toUpperCase();
+    }
+}
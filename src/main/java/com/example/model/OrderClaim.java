@@ -0,0 +1,16 @@
+package com.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderClaim {
+    private Order order;
+    // claim_expires_at as this claim set it; identifies the claim when its outcome is recorded
+    private LocalDateTime leaseExpiresAt;
+}
@@ -0,0 +1,16 @@
+package com.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderPage {
+    private List<Order> orders;
+    // Opaque continuation token for the next page, null on the last page
+    private String nextPageToken;
+}
@@ -0,0 +1,25 @@
+package com.example.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatusUpdateResult {
+    // Rows actually changed, keyed by the status they were moved to
+    private Map<String, Integer> updatedByStatus;
+    // Covers every chunk that committed
+    private ConsistencyToken consistencyToken;
+
+    public int getTotalUpdated() {
+        int total = 0;
+        for (Integer count : updatedByStatus.values()) {
+            total += count;
+        }
+        return total;
+    }
+}
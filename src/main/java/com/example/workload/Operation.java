@@ -0,0 +1,30 @@
+package com.example.workload;
+
+/**
+ * OrderDAO calls issued by the load generator.
+ */
+public enum Operation {
+    CREATE_ORDER(false, 1),
+    UPDATE_ORDER_STATUS(false, 1),
+    GET_ORDER_BY_ID(true, 2),
+    GET_ORDER_HISTORY_PAGE(true, 2),
+    GET_SALES_REPORT(true, 1),
+    SEARCH_ORDERS_BY_CUSTOMER(true, 2);
+
+    private final boolean read;
+    // Relative weight within the read or write share of the mix
+    private final int weight;
+
+    Operation(boolean read, int weight) {
+        this.read = read;
+        this.weight = weight;
+    }
+
+    public boolean isRead() {
+        return read;
+    }
+
+    public int getWeight() {
+        return weight;
+    }
+}
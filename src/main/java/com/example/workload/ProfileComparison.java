@@ -0,0 +1,127 @@
+package com.example.workload;
+
+import com.example.cache.OrderNearCache;
+import com.example.cache.QueryResultCache;
+import com.example.config.DriverProfile;
+import com.example.config.RoutingDataSource;
+import com.example.dao.InstanceRoleResolver;
+import com.example.dao.OrderDAO;
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs one workload against each {@link DriverProfile}, in this JVM and against the same table,
+ * then compares their throughput and latency. The first profile is the baseline for the relative
+ * columns, so listing {@code standard-jdbc} first shows what the wrapper costs.
+ *
+ * <p>Each profile gets its own pool built from the same settings. Its measured time is split into
+ * {@code --rounds} short rounds, and the profiles take turns round by round, each round starting
+ * with the next profile in the list. As the table grows over the comparison, every profile thus
+ * runs at every table size rather than the last one always running against the largest table.
+ * The process-wide caches, including instance roles, are cleared before each round so no profile
+ * is served from another's hits, and each round has its own warmup.
+ */
+@Slf4j
+public class ProfileComparison {
+    private final WorkloadConfig config;
+
+    public ProfileComparison(WorkloadConfig config) {
+        this.config = config;
+    }
+
+    public Map<DriverProfile, WorkloadReport> run() throws InterruptedException {
+        List<DriverProfile> profiles = config.getProfiles();
+        Map<DriverProfile, HikariDataSource> pools = new LinkedHashMap<>();
+        Map<DriverProfile, WorkloadReport> reports = new LinkedHashMap<>();
+        try {
+            for (DriverProfile profile : profiles) {
+                pools.put(profile, profile.createPool());
+                reports.put(profile, new WorkloadReport());
+            }
+            dao(profiles.get(0), pools).createTable();
+
+            WorkloadConfig roundConfig = config.withDurationSeconds(config.getDurationSeconds() / config.getRounds());
+            for (int round = 0; round < config.getRounds(); round++) {
+                for (int i = 0; i < profiles.size(); i++) {
+                    DriverProfile profile = profiles.get((round + i) % profiles.size());
+                    log.info("=== DRIVER PROFILE: {} (round {} of {}) ===", profile.id(), round + 1, config.getRounds());
+                    OrderNearCache.get().clear();
+                    QueryResultCache.get().clear();
+                    InstanceRoleResolver.invalidateAll();
+                    reports.get(profile).add(new WorkloadRunner(roundConfig, dao(profile, pools)).measure());
+                }
+            }
+        } finally {
+            for (HikariDataSource pool : pools.values()) {
+                pool.close();
+            }
+        }
+        for (Map.Entry<DriverProfile, WorkloadReport> entry : reports.entrySet()) {
+            log.info("=== DRIVER PROFILE REPORT: {} ===", entry.getKey().id());
+            entry.getValue().print();
+        }
+        print(reports);
+        return reports;
+    }
+
+    private static OrderDAO dao(DriverProfile profile, Map<DriverProfile, HikariDataSource> pools) {
+        HikariDataSource pool = pools.get(profile);
+        return new OrderDAO(new RoutingDataSource(pool, pool, profile.readOnlyReads()));
+    }
+
+    private static void print(Map<DriverProfile, WorkloadReport> reports) {
+        if (reports.isEmpty()) {
+            return;
+        }
+        StringBuilder table = new StringBuilder(String.format(
+                "%n=== DRIVER PROFILE COMPARISON (latencies in ms, %% columns are change vs %s) ===%n",
+                reports.keySet().iterator().next().id()));
+        table.append(String.format("%-22s %10s %8s %8s %8s %8s %8s %10s %10s %10s%n",
+                "PROFILE", "OPS/SEC", "ERRORS", "READ P50", "READ P99", "WRT P50", "WRT P99",
+                "OPS/SEC %", "READ P50 %", "WRT P50 %"));
+
+        Summary baseline = null;
+        for (Map.Entry<DriverProfile, WorkloadReport> entry : reports.entrySet()) {
+            Summary summary = new Summary(entry.getValue());
+            if (baseline == null) {
+                baseline = summary;
+            }
+            table.append(String.format("%-22s %10.1f %8d %8.2f %8.2f %8.2f %8.2f %10s %10s %10s%n",
+                    entry.getKey().id(), summary.opsPerSecond, summary.errors,
+                    summary.readP50, summary.readP99, summary.writeP50, summary.writeP99,
+                    change(summary.opsPerSecond, baseline.opsPerSecond),
+                    change(summary.readP50, baseline.readP50),
+                    change(summary.writeP50, baseline.writeP50)));
+        }
+        log.info(table.toString());
+    }
+
+    private static String change(double value, double baseline) {
+        return baseline == 0 ? "-" : String.format("%+.1f", (value - baseline) / baseline * 100);
+    }
+
+    private static final class Summary {
+        private final double opsPerSecond;
+        private final long errors;
+        private final double readP50;
+        private final double readP99;
+        private final double writeP50;
+        private final double writeP99;
+
+        private Summary(WorkloadReport report) {
+            Histogram reads = report.combined(true);
+            Histogram writes = report.combined(false);
+            this.opsPerSecond = (reads.getTotalCount() + writes.getTotalCount()) / report.getMeasuredSeconds();
+            this.errors = report.getErrorCount();
+            this.readP50 = reads.getValueAtPercentile(50) / 1000.0;
+            this.readP99 = reads.getValueAtPercentile(99) / 1000.0;
+            this.writeP50 = writes.getValueAtPercentile(50) / 1000.0;
+            this.writeP99 = writes.getValueAtPercentile(99) / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.workload;
+
+import com.example.config.DriverProfile;
+import com.example.config.ThreadMode;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Load generator settings, parsed from {@code --name value} command line options.
+ */
+@Data
+public class WorkloadConfig {
+    private int threads = 8;
+    // Target requests per second across all threads; 0 runs closed-loop, each thread back to back
+    private double rate = 200;
+    private int durationSeconds = 60;
+    private int warmupSeconds = 10;
+    // Fraction of operations that are reads
+    private double readRatio = 0.8;
+    private int seedOrders = 1000;
+    // Route CREATE_ORDER through the group-commit OrderWriteBuffer
+    private boolean writeBuffer;
+    // VIRTUAL runs every request on its own virtual thread (Java 21+)
+    private ThreadMode threadMode = ThreadMode.configured();
+    // Run once per driver profile in this JVM and compare; empty uses DatabaseConfig's pools
+    private List<DriverProfile> profiles = new ArrayList<>();
+    // Profile comparisons split each profile's duration into this many rounds, interleaved
+    private int rounds = 3;
+
+    public static WorkloadConfig parse(String[] args) {
+        WorkloadConfig config = new WorkloadConfig();
+        for (int i = 0; i < args.length; i++) {
+            String option = args[i];
+            if (!option.startsWith("--") || "--workload".equals(option)) {
+                continue;
+            }
+            if (i + 1 >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            String value = args[++i];
+            switch (option) {
+                case "--threads":
+                    config.setThreads(Integer.parseInt(value));
+                    break;
+                case "--rate":
+                    config.setRate(Double.parseDouble(value));
+                    break;
+                case "--duration":
+                    config.setDurationSeconds(Integer.parseInt(value));
+                    break;
+                case "--warmup":
+                    config.setWarmupSeconds(Integer.parseInt(value));
+                    break;
+                case "--read-ratio":
+                    config.setReadRatio(Double.parseDouble(value));
+                    break;
+                case "--seed":
+                    config.setSeedOrders(Integer.parseInt(value));
+                    break;
+                case "--write-buffer":
+                    config.setWriteBuffer(Boolean.parseBoolean(value));
+                    break;
+                case "--thread-mode":
+                    config.setThreadMode(ThreadMode.parse(value));
+                    break;
+                case "--profiles":
+                    config.setProfiles(DriverProfile.parseList(value));
+                    break;
+                case "--rounds":
+                    config.setRounds(Integer.parseInt(value));
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown workload option: " + option);
+            }
+        }
+        config.validate();
+        return config;
+    }
+
+    private void validate() {
+        if (threads < 1) {
+            throw new IllegalArgumentException("--threads must be at least 1");
+        }
+        if (rate < 0) {
+            throw new IllegalArgumentException("--rate must not be negative");
+        }
+        if (durationSeconds < 1 || warmupSeconds < 0) {
+            throw new IllegalArgumentException("--duration must be positive and --warmup not negative");
+        }
+        if (readRatio < 0 || readRatio > 1) {
+            throw new IllegalArgumentException("--read-ratio must be between 0 and 1");
+        }
+        if (seedOrders < 1) {
+            throw new IllegalArgumentException("--seed must be at least 1 so updates have orders to target");
+        }
+        if (rounds < 1 || rounds > durationSeconds) {
+            throw new IllegalArgumentException("--rounds must be between 1 and --duration");
+        }
+    }
+
+    /** A copy of these settings that measures for {@code seconds}, e.g. one round of a comparison. */
+    WorkloadConfig withDurationSeconds(int seconds) {
+        WorkloadConfig copy = new WorkloadConfig();
+        copy.setThreads(threads);
+        copy.setRate(rate);
+        copy.setDurationSeconds(seconds);
+        copy.setWarmupSeconds(warmupSeconds);
+        copy.setReadRatio(readRatio);
+        copy.setSeedOrders(seedOrders);
+        copy.setWriteBuffer(writeBuffer);
+        copy.setThreadMode(threadMode);
+        copy.setProfiles(profiles);
+        copy.setRounds(rounds);
+        return copy;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.workload;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latency histograms per operation and route (the instance role, or how the call was served
+ * without one, see {@link WorkloadRunner}), recorded in microseconds, over the measured part of a
+ * run set with {@link #complete}. Reports of several runs can be summed with {@link #add}.
+ */
+@Slf4j
+public class WorkloadReport {
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final ConcurrentMap<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> errors = new ConcurrentHashMap<>();
+    private long measuredNanos;
+
+    public void recordSuccess(Operation operation, String role, long latencyNanos) {
+        histogram(operation.name() + " " + role)
+                .recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_LATENCY_MICROS));
+    }
+
+    public void recordError(Operation operation) {
+        AtomicLong count = errors.get(operation.name());
+        if (count == null) {
+            errors.putIfAbsent(operation.name(), new AtomicLong());
+            count = errors.get(operation.name());
+        }
+        count.incrementAndGet();
+    }
+
+    public void complete(long measuredNanos) {
+        this.measuredNanos = measuredNanos;
+    }
+
+    /** Adds the latencies, errors and measured time of {@code other}, e.g. another round of the same profile. */
+    public void add(WorkloadReport other) {
+        for (Map.Entry<String, Histogram> entry : other.histograms.entrySet()) {
+            histogram(entry.getKey()).add(entry.getValue());
+        }
+        for (Map.Entry<String, AtomicLong> entry : other.errors.entrySet()) {
+            errors.computeIfAbsent(entry.getKey(), key -> new AtomicLong()).addAndGet(entry.getValue().get());
+        }
+        measuredNanos += other.measuredNanos;
+    }
+
+    public double getMeasuredSeconds() {
+        return measuredNanos / 1_000_000_000.0;
+    }
+
+    /** Latencies of every successful read, or every successful write, whichever instance served it. */
+    public Histogram combined(boolean reads) {
+        Histogram combined = new Histogram(MAX_LATENCY_MICROS, 3);
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            String operation = entry.getKey().substring(0, entry.getKey().indexOf(' '));
+            if (Operation.valueOf(operation).isRead() == reads) {
+                combined.add(entry.getValue());
+            }
+        }
+        return combined;
+    }
+
+    public long getErrorCount() {
+        long total = 0;
+        for (AtomicLong count : errors.values()) {
+            total += count.get();
+        }
+        return total;
+    }
+
+    public void print() {
+        double seconds = getMeasuredSeconds();
+        StringBuilder report = new StringBuilder("\n=== WORKLOAD REPORT (latencies in ms) ===\n");
+        report.append(String.format("%-38s %8s %10s %8s %8s %8s %8s %8s%n",
+                "OPERATION ROUTE", "COUNT", "OPS/SEC", "P50", "P90", "P99", "P99.9", "MAX"));
+
+        Histogram writer = new Histogram(MAX_LATENCY_MICROS, 3);
+        Histogram reader = new Histogram(MAX_LATENCY_MICROS, 3);
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(histograms).entrySet()) {
+            Histogram histogram = entry.getValue();
+            appendRow(report, entry.getKey(), histogram, seconds);
+            if (entry.getKey().endsWith("READER")) {
+                reader.add(histogram);
+            } else if (entry.getKey().endsWith("WRITER")) {
+                writer.add(histogram);
+            }
+        }
+        appendRow(report, "ALL WRITER", writer, seconds);
+        appendRow(report, "ALL READER", reader, seconds);
+
+        for (Map.Entry<String, AtomicLong> entry : new TreeMap<>(errors).entrySet()) {
+            report.append(String.format("%-38s %8d errors%n", entry.getKey(), entry.getValue().get()));
+        }
+        log.info(report.toString());
+    }
+
+    private Histogram histogram(String key) {
+        Histogram histogram = histograms.get(key);
+        if (histogram == null) {
+            histograms.putIfAbsent(key, new ConcurrentHistogram(MAX_LATENCY_MICROS, 3));
+            histogram = histograms.get(key);
+        }
+        return histogram;
+    }
+
+    private static void appendRow(StringBuilder report, String key, Histogram histogram, double seconds) {
+        report.append(String.format("%-38s %8d %10.1f %8.2f %8.2f %8.2f %8.2f %8.2f%n",
+                key,
+                histogram.getTotalCount(),
+                histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / 1000.0,
+                histogram.getValueAtPercentile(90) / 1000.0,
+                histogram.getValueAtPercentile(99) / 1000.0,
+                histogram.getValueAtPercentile(99.9) / 1000.0,
+                histogram.getMaxValue() / 1000.0));
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.workload;
+
+import com.example.config.ThreadMode;
+import com.example.dao.InstanceRoleResolver;
+import com.example.dao.OrderDAO;
+import com.example.dao.OrderWriteBuffer;
+import com.example.model.Order;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Multi-threaded mixed read/write workload against {@link OrderDAO}.
+ *
+ * <p>With a target rate the runner is open-loop: a dispatcher schedules each request at its
+ * intended start time and latency is measured from that time, so queueing behind a slow request
+ * counts against the result instead of being hidden (coordinated omission). With rate 0 each
+ * thread issues requests back to back. Operations that start during warmup are not recorded.
+ *
+ * <p>Each operation is recorded under the role of the instance its last statement ran on. Calls
+ * that used no connection are recorded as {@code CACHE} (near-cache hits), orders created through
+ * the write buffer as {@code BUFFERED} (the buffer's own thread inserts them), and calls on a
+ * connection whose role was not looked up as {@code UNRESOLVED} ({@code db.roleDetection=off}).
+ */
+@Slf4j
+public class WorkloadRunner {
+    private static final int PAGE_SIZE = 50;
+    private static final String[] CUSTOMERS = {"John Doe", "Jane Smith", "Bob Johnson", "Alice Brown",
+            "Carlos Diaz", "Mei Chen", "Priya Patel", "Omar Haddad", "Sara Jensen", "Ken Sato"};
+    private static final String[] PRODUCTS = {"Laptop", "Mouse", "Keyboard", "Monitor", "Headset"};
+    private static final String[] STATUSES = {"PENDING", "SHIPPED", "COMPLETED"};
+
+    private final WorkloadConfig config;
+    private final OrderDAO dao;
+    private final WorkloadReport report = new WorkloadReport();
+    private final Operation[] reads;
+    private final Operation[] writes;
+    private OrderWriteBuffer writeBuffer;
+    private final AtomicLong maxOrderId = new AtomicLong();
+    private long minOrderId;
+    private long measureStart;
+
+    public WorkloadRunner(WorkloadConfig config, OrderDAO dao) {
+        this.config = config;
+        this.dao = dao;
+        this.reads = weightedOperations(true);
+        this.writes = weightedOperations(false);
+    }
+
+    public WorkloadReport run() throws InterruptedException {
+        measure();
+        report.print();
+        return report;
+    }
+
+    /** Runs the workload like {@link #run} without printing the report. */
+    WorkloadReport measure() throws InterruptedException {
+        log.info("=== RUNNING WORKLOAD: {} ===", config);
+        dao.createTable();
+        seedOrders();
+
+        if (LoggerFactory.getLogger(OrderDAO.class).isInfoEnabled()) {
+            log.warn("Per-operation DAO logging is on and will weigh on the measurements; "
+                    + "run with -Ddao.logLevel=WARN to turn it off");
+        }
+
+        long start = System.nanoTime();
+        measureStart = start + TimeUnit.SECONDS.toNanos(config.getWarmupSeconds());
+        long end = measureStart + TimeUnit.SECONDS.toNanos(config.getDurationSeconds());
+
+        if (config.isWriteBuffer()) {
+            writeBuffer = new OrderWriteBuffer(dao);
+        }
+        try {
+            if (config.getRate() > 0) {
+                runOpenLoop(start, end);
+            } else {
+                runClosedLoop(end);
+            }
+        } finally {
+            if (writeBuffer != null) {
+                writeBuffer.close();
+            }
+        }
+
+        report.complete(end - measureStart);
+        return report;
+    }
+
+    private void runOpenLoop(long start, long end) throws InterruptedException {
+        // Virtual threads are cheap enough to give every request its own, so --threads no longer caps
+        // concurrency and requests queue only for pooled connections
+        ExecutorService workers = config.getThreadMode() == ThreadMode.VIRTUAL
+                ? config.getThreadMode().newThreadPerTaskExecutor("workload")
+                : Executors.newFixedThreadPool(config.getThreads(), workerThreads());
+        double intervalNanos = TimeUnit.SECONDS.toNanos(1) / config.getRate();
+        try {
+            for (long n = 0; ; n++) {
+                final long intended = start + (long) (n * intervalNanos);
+                if (intended >= end) {
+                    break;
+                }
+                long wait = intended - System.nanoTime();
+                if (wait > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+                workers.execute(() -> execute(nextOperation(), intended));
+            }
+        } finally {
+            workers.shutdown();
+            workers.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private void runClosedLoop(long end) throws InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(config.getThreads(), workerThreads());
+        for (int i = 0; i < config.getThreads(); i++) {
+            workers.execute(() -> {
+                while (System.nanoTime() < end) {
+                    execute(nextOperation(), System.nanoTime());
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(config.getWarmupSeconds() + config.getDurationSeconds() + 60L, TimeUnit.SECONDS);
+    }
+
+    private void execute(Operation operation, long intendedStart) {
+        boolean measured = intendedStart - measureStart >= 0;
+        InstanceRoleResolver.clearLastResolvedRole();
+        try {
+            perform(operation);
+            if (measured) {
+                report.recordSuccess(operation, route(operation), System.nanoTime() - intendedStart);
+            }
+        } catch (RuntimeException e) {
+            if (measured) {
+                report.recordError(operation);
+            }
+            log.debug("{} failed", operation, e);
+        }
+    }
+
+    private String route(Operation operation) {
+        if (operation == Operation.CREATE_ORDER && writeBuffer != null) {
+            return "BUFFERED";
+        }
+        String role = InstanceRoleResolver.lastResolvedRole();
+        return role != null ? role : "CACHE";
+    }
+
+    private void perform(Operation operation) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (operation) {
+            case CREATE_ORDER:
+                Order order = randomOrder(random);
+                if (writeBuffer != null) {
+                    // Waiting for the batch keeps the latency comparable with a direct insert
+                    writeBuffer.submit(order).join();
+                } else {
+                    dao.createOrder(order);
+                }
+                maxOrderId.accumulateAndGet(order.getId(), Math::max);
+                break;
+            case UPDATE_ORDER_STATUS:
+                dao.updateOrderStatus(random.nextLong(minOrderId, maxOrderId.get() + 1),
+                        STATUSES[random.nextInt(STATUSES.length)]);
+                break;
+            case GET_ORDER_BY_ID:
+                dao.getOrderById(random.nextLong(minOrderId, maxOrderId.get() + 1));
+                break;
+            case GET_ORDER_HISTORY_PAGE:
+                dao.getOrderHistoryPage(null, PAGE_SIZE);
+                break;
+            case GET_SALES_REPORT:
+                dao.getSalesReport();
+                break;
+            case SEARCH_ORDERS_BY_CUSTOMER:
+                dao.searchOrdersByCustomerPage(CUSTOMERS[random.nextInt(CUSTOMERS.length)], null, PAGE_SIZE);
+                break;
+            default:
+                throw new IllegalStateException("Unhandled operation " + operation);
+        }
+    }
+
+    private Operation nextOperation() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Operation[] choices = random.nextDouble() < config.getReadRatio() ? reads : writes;
+        return choices[random.nextInt(choices.length)];
+    }
+
+    private void seedOrders() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<Order> seed = new ArrayList<>(config.getSeedOrders());
+        for (int i = 0; i < config.getSeedOrders(); i++) {
+            seed.add(randomOrder(random));
+        }
+        dao.createOrders(seed);
+        minOrderId = seed.get(0).getId();
+        maxOrderId.set(seed.get(seed.size() - 1).getId());
+    }
+
+    private static Order randomOrder(ThreadLocalRandom random) {
+        int quantity = 1 + random.nextInt(5);
+        return new Order(null,
+                CUSTOMERS[random.nextInt(CUSTOMERS.length)],
+                PRODUCTS[random.nextInt(PRODUCTS.length)],
+                quantity,
+                Math.round(random.nextDouble(10, 1500) * 100) / 100.0 * quantity,
+                "PENDING",
+                null);
+    }
+
+    private static Operation[] weightedOperations(boolean read) {
+        List<Operation> operations = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            if (operation.isRead() == read) {
+                for (int i = 0; i < operation.getWeight(); i++) {
+                    operations.add(operation);
+                }
+            }
+        }
+        return operations.toArray(new Operation[0]);
+    }
+
+    private ThreadFactory workerThreads() {
+        return config.getThreadMode().factory("workload");
+    }
+}
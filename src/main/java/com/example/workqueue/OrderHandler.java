@@ -0,0 +1,12 @@
+package com.example.workqueue;
+
+import com.example.model.Order;
+
+/**
+ * Processes one claimed order for a {@link PendingOrderProcessor}.
+ */
+public interface OrderHandler {
+
+    /** Returns the status to record for the order; an exception records {@code FAILED}. */
+    String process(Order order) throws Exception;
+}
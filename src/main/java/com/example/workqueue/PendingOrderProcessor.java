@@ -0,0 +1,293 @@
+package com.example.workqueue;
+
+import com.example.config.AppConfig;
+import com.example.dao.OrderDAO;
+import com.example.model.OrderClaim;
+import com.example.model.StatusUpdateResult;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Shares {@code PENDING} orders out to a pool of worker threads through
+ * {@link OrderDAO#claimPendingOrders}.
+ *
+ * <p>One claimer thread claims up to {@code db.workQueue.claimBatchSize} orders per round trip,
+ * but never more than the workers have room for ({@code db.workQueue.workers} running plus as many
+ * queued), so claimed orders do not sit idle while their lease runs. Outcomes are queued and a
+ * completer thread records them with {@link OrderDAO#completeOrders} every
+ * {@code db.workQueue.completionBatchSize} orders or {@code db.workQueue.completionFlushMs}.
+ *
+ * <p>Several processors, in one JVM or many, can share the table: claims skip rows another
+ * claimer holds, so nobody waits on a lock and no order is handed out twice while its lease
+ * ({@code db.workQueue.leaseSeconds}) lasts. Orders left {@code PROCESSING} by a processor that
+ * died are returned to {@code PENDING} once their lease expires; an outcome that arrives after
+ * that is dropped, since the order now belongs to whoever claims it next.
+ */
+@Slf4j
+public class PendingOrderProcessor implements PendingOrderProcessorMXBean, AutoCloseable {
+    public static final String FAILED = "FAILED";
+
+    private final int workers = Integer.parseInt(AppConfig.getProperty("db.workQueue.workers", "8"));
+    private final int claimBatchSize = Integer.parseInt(AppConfig.getProperty("db.workQueue.claimBatchSize", "50"));
+    private final int completionBatchSize = Integer.parseInt(
+            AppConfig.getProperty("db.workQueue.completionBatchSize", "200"));
+    private final long completionFlushMs = Long.parseLong(AppConfig.getProperty("db.workQueue.completionFlushMs", "100"));
+    private final int leaseSeconds = Integer.parseInt(AppConfig.getProperty("db.workQueue.leaseSeconds", "300"));
+    private final long idlePollMs = Long.parseLong(AppConfig.getProperty("db.workQueue.idlePollMs", "500"));
+
+    private final OrderDAO dao;
+    private final OrderHandler handler;
+    private final ExecutorService pool;
+    private final Semaphore capacity;
+    private final BlockingQueue<Outcome> outcomes = new LinkedBlockingQueue<>();
+    private final AtomicLong claimed = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong emptyClaims = new AtomicLong();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean running;
+    private Thread claimer;
+    private Thread completer;
+
+    public PendingOrderProcessor(OrderDAO dao, OrderHandler handler) {
+        this.dao = dao;
+        this.handler = handler;
+        this.pool = Executors.newFixedThreadPool(workers, r -> {
+            Thread t = new Thread(r, "order-worker");
+            t.setDaemon(true);
+            return t;
+        });
+        this.capacity = new Semaphore(workers * 2);
+    }
+
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(this, new ObjectName("com.example:type=PendingOrderProcessor"));
+        } catch (JMException e) {
+            log.warn("Could not register pending order processor MBean", e);
+        }
+        claimer = new Thread(this::claimLoop, "order-claimer");
+        completer = new Thread(this::completeLoop, "order-completer");
+        claimer.setDaemon(true);
+        completer.setDaemon(true);
+        claimer.start();
+        completer.start();
+        log.info("Processing pending orders with {} workers, claiming up to {} at a time", workers, claimBatchSize);
+    }
+
+    /** Blocks until no order is pending or in flight, or the timeout elapses. */
+    public boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (System.nanoTime() - deadline < 0) {
+            long claimedBefore = claimed.get();
+            long emptyBefore = emptyClaims.get();
+            TimeUnit.MILLISECONDS.sleep(idlePollMs + completionFlushMs);
+            // Idle once a claim came back empty with nothing claimed or in flight around it
+            if (emptyClaims.get() > emptyBefore && claimed.get() == claimedBefore && inFlight.get() == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Stops claiming, lets claimed orders finish and records their outcomes. If the calling thread
+     * is interrupted it stops waiting, leaving orders still in flight to be claimed again once their
+     * lease expires, and returns with the interrupt flag set.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            running = false;
+        }
+        claimer.interrupt();
+        try {
+            claimer.join();
+            pool.shutdown();
+            pool.awaitTermination(leaseSeconds, TimeUnit.SECONDS);
+            completer.interrupt();
+            completer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            pool.shutdownNow();
+            completer.interrupt();
+        }
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .unregisterMBean(new ObjectName("com.example:type=PendingOrderProcessor"));
+        } catch (JMException e) {
+            // Not registered
+        }
+        log.info("Pending order processor stopped: {} claimed, {} completed, {} failed",
+                claimed.get(), completed.get(), failed.get());
+    }
+
+    private void claimLoop() {
+        long nextRelease = 0;
+        while (running) {
+            try {
+                if (System.nanoTime() - nextRelease >= 0) {
+                    dao.releaseExpiredClaims();
+                    nextRelease = System.nanoTime() + TimeUnit.SECONDS.toNanos(Math.max(1, leaseSeconds / 2));
+                }
+
+                // Wait for room for at least one order, then take whatever else is free
+                capacity.acquire();
+                int permits = 1;
+                while (permits < claimBatchSize && capacity.tryAcquire()) {
+                    permits++;
+                }
+
+                List<OrderClaim> orders;
+                try {
+                    orders = dao.claimPendingOrders(permits, leaseSeconds);
+                } catch (RuntimeException e) {
+                    capacity.release(permits);
+                    throw e;
+                }
+                capacity.release(permits - orders.size());
+                if (orders.isEmpty()) {
+                    emptyClaims.incrementAndGet();
+                    TimeUnit.MILLISECONDS.sleep(idlePollMs);
+                    continue;
+                }
+                claimed.addAndGet(orders.size());
+                inFlight.addAndGet(orders.size());
+                for (OrderClaim claim : orders) {
+                    pool.execute(() -> process(claim));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                // Usually a failover; claimed rows are safe until their lease expires
+                log.warn("Error claiming pending orders, retrying: {}", e.getMessage());
+                sleepQuietly(idlePollMs);
+            }
+        }
+    }
+
+    private void process(OrderClaim claim) {
+        String status;
+        try {
+            status = handler.process(claim.getOrder());
+        } catch (Exception e) {
+            log.warn("Processing order {} failed", claim.getOrder().getId(), e);
+            status = FAILED;
+        }
+        outcomes.add(new Outcome(claim, status));
+        capacity.release();
+    }
+
+    private void completeLoop() {
+        List<Outcome> batch = new ArrayList<>(completionBatchSize);
+        boolean stopping = false;
+        while (!stopping || !outcomes.isEmpty()) {
+            try {
+                Outcome first = outcomes.poll(completionFlushMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                outcomes.drainTo(batch, completionBatchSize - 1);
+            } catch (InterruptedException e) {
+                // close() interrupts once the workers are done; record what is left
+                stopping = true;
+                outcomes.drainTo(batch, completionBatchSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                complete(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void complete(List<Outcome> batch) {
+        Map<OrderClaim, String> statuses = new LinkedHashMap<>();
+        for (Outcome outcome : batch) {
+            statuses.put(outcome.claim, outcome.status);
+        }
+        try {
+            StatusUpdateResult result = dao.completeOrders(statuses);
+            Integer failedCount = result.getUpdatedByStatus().get(FAILED);
+            int recordedFailed = failedCount != null ? failedCount : 0;
+            failed.addAndGet(recordedFailed);
+            completed.addAndGet(result.getTotalUpdated() - recordedFailed);
+            int late = batch.size() - result.getTotalUpdated();
+            if (late > 0) {
+                log.warn("Dropped {} outcomes whose claim expired before they were recorded", late);
+            }
+        } catch (RuntimeException e) {
+            // The orders stay PROCESSING and are handed out again when their lease expires
+            log.error("Error recording {} completed orders", batch.size(), e);
+        } finally {
+            inFlight.addAndGet(-batch.size());
+        }
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public long getClaimed() {
+        return claimed.get();
+    }
+
+    @Override
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    @Override
+    public long getFailed() {
+        return failed.get();
+    }
+
+    @Override
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public long getEmptyClaims() {
+        return emptyClaims.get();
+    }
+
+    private static final class Outcome {
+        private final OrderClaim claim;
+        private final String status;
+
+        private Outcome(OrderClaim claim, String status) {
+            this.claim = claim;
+            this.status = status;
+        }
+    }
+}
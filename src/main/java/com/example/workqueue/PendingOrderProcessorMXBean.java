@@ -0,0 +1,20 @@
+package com.example.workqueue;
+
+/**
+ * JMX view of the pending order processor, registered as {@code com.example:type=PendingOrderProcessor}.
+ */
+public interface PendingOrderProcessorMXBean {
+
+    long getClaimed();
+
+    long getCompleted();
+
+    /** Orders whose handler threw and were recorded as FAILED. */
+    long getFailed();
+
+    /** Claimed orders not yet recorded as completed. */
+    int getInFlight();
+
+    /** Claim round trips that found no pending order. */
+    long getEmptyClaims();
+}
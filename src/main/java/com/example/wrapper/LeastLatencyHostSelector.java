@@ -0,0 +1,92 @@
+package com.example.wrapper;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.jdbc.HostRole;
+import software.amazon.jdbc.HostSelector;
+import software.amazon.jdbc.HostSpec;
+import software.amazon.jdbc.hostavailability.HostAvailability;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks a reader at random, weighted by the inverse of its latency EWMA, skipping readers that
+ * are unavailable or excluded for replica lag. Weighting instead of always taking the fastest
+ * host keeps every reader sampled, so a recovered reader wins traffic back. Readers without a
+ * sample yet get the best measured weight. When no reader is eligible the writer is returned.
+ */
+@Slf4j
+public class LeastLatencyHostSelector implements HostSelector {
+    public static final String STRATEGY = "leastLatency";
+
+    private final ReaderSelectionStats stats = ReaderSelectionStats.get();
+
+    @Override
+    public HostSpec getHost(List<HostSpec> hosts, HostRole role, Properties props) throws SQLException {
+        List<HostSpec> eligible = new ArrayList<>();
+        HostSpec writer = null;
+        for (HostSpec host : hosts) {
+            if (host.getRole() == HostRole.WRITER) {
+                writer = host;
+            } else if (host.getRole() == role && host.getAvailability() == HostAvailability.AVAILABLE
+                    && !stats.isExcluded(hostKey(host))) {
+                eligible.add(host);
+            }
+        }
+
+        if (eligible.isEmpty()) {
+            if (writer == null) {
+                throw new SQLException("No eligible " + role + " or WRITER host for strategy " + STRATEGY);
+            }
+            stats.recordWriterFallback();
+            log.warn("No eligible reader, falling back to writer {}", writer.getHost());
+            return writer;
+        }
+
+        double[] weights = new double[eligible.size()];
+        double best = 0;
+        for (int i = 0; i < weights.length; i++) {
+            double ewma = stats.latencyEwmaNanos(hostKey(eligible.get(i)));
+            weights[i] = ewma > 0 ? 1 / ewma : 0;
+            best = Math.max(best, weights[i]);
+        }
+        double total = 0;
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] == 0) {
+                weights[i] = best > 0 ? best : 1;
+            }
+            total += weights[i];
+        }
+
+        double pick = ThreadLocalRandom.current().nextDouble(total);
+        int chosen = weights.length - 1;
+        for (int i = 0; i < weights.length; i++) {
+            pick -= weights[i];
+            if (pick < 0) {
+                chosen = i;
+                break;
+            }
+        }
+
+        HostSpec host = eligible.get(chosen);
+        stats.recordSelection(hostKey(host));
+        if (log.isDebugEnabled()) {
+            log.debug("Selected reader {} with weight {} of {} across {} eligible readers",
+                    hostKey(host), weights[chosen], total, eligible.size());
+        }
+        return host;
+    }
+
+    /** Aurora instance id, which is also the first label of the instance endpoint. */
+    static String hostKey(HostSpec host) {
+        if (host.getHostId() != null) {
+            return host.getHostId();
+        }
+        String name = host.getHost();
+        int dot = name.indexOf('.');
+        return dot > 0 ? name.substring(0, dot) : name;
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.wrapper;
+
+import software.amazon.jdbc.HostRole;
+import software.amazon.jdbc.HostSpec;
+import software.amazon.jdbc.JdbcCallable;
+import software.amazon.jdbc.PluginService;
+import software.amazon.jdbc.plugin.AbstractConnectionPlugin;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+/**
+ * Times statements executed on reader connections and serves the {@code leastLatency} reader
+ * selection strategy to the read/write splitting plugin. Must come before
+ * {@code readWriteSplitting} in the plugin chain so it sees which reader each statement ran on.
+ */
+public class LeastLatencyReaderPlugin extends AbstractConnectionPlugin {
+    private static final Set<String> subscribedMethods = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "Statement.execute",
+            "Statement.executeQuery",
+            "PreparedStatement.execute",
+            "PreparedStatement.executeQuery",
+            "CallableStatement.execute",
+            "CallableStatement.executeQuery",
+            "acceptsStrategy",
+            "getHostSpecByStrategy")));
+
+    private final PluginService pluginService;
+    private final Properties properties;
+    private final LeastLatencyHostSelector selector = new LeastLatencyHostSelector();
+    private final ReaderSelectionStats stats = ReaderSelectionStats.get();
+
+    public LeastLatencyReaderPlugin(PluginService pluginService, Properties properties) {
+        this.pluginService = pluginService;
+        this.properties = properties;
+    }
+
+    @Override
+    public Set<String> getSubscribedMethods() {
+        return subscribedMethods;
+    }
+
+    @Override
+    public <T, E extends Exception> T execute(Class<T> resultClass, Class<E> exceptionClass, Object methodInvokeOn,
+                                              String methodName, JdbcCallable<T, E> jdbcMethodFunc,
+                                              Object[] jdbcMethodArgs) throws E {
+        HostSpec host = pluginService.getCurrentHostSpec();
+        if (host == null || host.getRole() != HostRole.READER) {
+            return jdbcMethodFunc.call();
+        }
+        long start = System.nanoTime();
+        T result = jdbcMethodFunc.call();
+        stats.recordLatency(LeastLatencyHostSelector.hostKey(host), System.nanoTime() - start);
+        return result;
+    }
+
+    @Override
+    public boolean acceptsStrategy(HostRole role, String strategy) {
+        return role == HostRole.READER && LeastLatencyHostSelector.STRATEGY.equals(strategy);
+    }
+
+    @Override
+    public HostSpec getHostSpecByStrategy(HostRole role, String strategy) throws SQLException {
+        return getHostSpecByStrategy(pluginService.getHosts(), role, strategy);
+    }
+
+    @Override
+    public HostSpec getHostSpecByStrategy(List<HostSpec> hosts, HostRole role, String strategy) throws SQLException {
+        if (!acceptsStrategy(role, strategy)) {
+            throw new UnsupportedOperationException("Unsupported host selection strategy " + strategy + " for " + role);
+        }
+        return selector.getHost(hosts, role, properties);
+    }
+}
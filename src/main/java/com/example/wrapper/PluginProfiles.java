@@ -0,0 +1,81 @@
+package com.example.wrapper;
+
+import software.amazon.jdbc.ConnectionPluginFactory;
+import software.amazon.jdbc.plugin.failover.FailoverConnectionPluginFactory;
+import software.amazon.jdbc.plugin.readwritesplitting.ReadWriteSplittingPluginFactory;
+import software.amazon.jdbc.profile.ConfigurationProfileBuilder;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Registers wrapper configuration profiles that put this application's plugins ahead of the
+ * built-in ones. Custom plugins cannot be named in {@code wrapperPlugins}, so pools that need
+ * them set {@code wrapperProfileName} to the returned profile instead.
+ */
+public final class PluginProfiles {
+    private static final Map<String, Class<? extends ConnectionPluginFactory>> builtInPlugins = new HashMap<>();
+
+    static {
+        builtInPlugins.put("readWriteSplitting", ReadWriteSplittingPluginFactory.class);
+        builtInPlugins.put("failover", FailoverConnectionPluginFactory.class);
+    }
+
+    private PluginProfiles() {
+    }
+
+    /**
+     * Sets the properties of a wrapper data source running the built-in {@code wrapperPlugins} so
+     * that the custom plugins selected by {@code db.resultCache} and {@code db.readerSelection} run
+     * with them. Shared by {@code DatabaseConfig} and {@code DriverProfile}.
+     */
+    public static void configure(Properties targetProps, String wrapperPlugins, String readerSelection,
+                                 boolean resultCache) {
+        // Custom plugins run ahead of the built-in ones: the result cache first so hits skip
+        // everything else, then latency tracking so it sees which reader each statement ran on
+        List<Class<? extends ConnectionPluginFactory>> customPlugins = new ArrayList<>();
+        if (resultCache) {
+            customPlugins.add(QueryResultCachePluginFactory.class);
+        }
+        if (wrapperPlugins.contains("readWriteSplitting")) {
+            targetProps.setProperty("readerHostSelectorStrategy", readerSelection);
+            if (LeastLatencyHostSelector.STRATEGY.equals(readerSelection)) {
+                customPlugins.add(LeastLatencyReaderPluginFactory.class);
+            }
+        }
+        if (!customPlugins.isEmpty()) {
+            targetProps.setProperty("wrapperProfileName", register(customPlugins, wrapperPlugins));
+        }
+    }
+
+    /**
+     * Registers a profile running {@code customPlugins} first, then the comma-separated built-in
+     * {@code wrapperPlugins} codes, and returns its name.
+     */
+    public static synchronized String register(List<Class<? extends ConnectionPluginFactory>> customPlugins,
+                                               String wrapperPlugins) {
+        List<Class<? extends ConnectionPluginFactory>> factories = new ArrayList<>(customPlugins);
+        StringBuilder name = new StringBuilder();
+        for (Class<? extends ConnectionPluginFactory> factory : customPlugins) {
+            name.append(factory.getSimpleName().replace("PluginFactory", "")).append(',');
+        }
+        for (String code : wrapperPlugins.split(",")) {
+            Class<? extends ConnectionPluginFactory> factory = builtInPlugins.get(code.trim());
+            if (factory == null) {
+                throw new IllegalArgumentException("Plugin '" + code.trim() + "' cannot be combined with custom plugins");
+            }
+            factories.add(factory);
+            name.append(code.trim()).append(',');
+        }
+        name.setLength(name.length() - 1);
+
+        ConfigurationProfileBuilder.get()
+                .withName(name.toString())
+                .withPluginFactories(factories)
+                .buildAndSet();
+        return name.toString();
+    }
+}
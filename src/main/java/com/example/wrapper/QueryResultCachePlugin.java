@@ -0,0 +1,167 @@
+package com.example.wrapper;
+
+import com.example.cache.CachedResult;
+import com.example.cache.QueryResultCache;
+import software.amazon.jdbc.JdbcCallable;
+import software.amazon.jdbc.PluginService;
+import software.amazon.jdbc.plugin.AbstractConnectionPlugin;
+import software.amazon.jdbc.util.WrapperUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Serves hinted queries on read-only connections from {@link QueryResultCache} and invalidates
+ * cached results when statements on any connection write to the tables they read.
+ *
+ * <p>Prepared statements are keyed by pgjdbc's {@code toString()}, which renders the SQL with the
+ * bound parameters inlined. Writes invalidate once when executed and again when they take effect:
+ * on commit inside a transaction, as soon as the statement returns in autocommit mode. A result
+ * read while the write ran, or while a reader was still replaying it, is therefore not kept. Bulk loads through
+ * {@code CopyManager} bypass the wrapper and invalidate the cache themselves.
+ */
+public class QueryResultCachePlugin extends AbstractConnectionPlugin {
+    private static final Set<String> subscribedMethods = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "Statement.executeQuery",
+            "Statement.execute",
+            "Statement.executeUpdate",
+            "Statement.executeLargeUpdate",
+            "Statement.executeBatch",
+            "Statement.executeLargeBatch",
+            "PreparedStatement.executeQuery",
+            "PreparedStatement.execute",
+            "PreparedStatement.executeUpdate",
+            "PreparedStatement.executeLargeUpdate",
+            "PreparedStatement.executeBatch",
+            "PreparedStatement.executeLargeBatch",
+            "Connection.commit",
+            "Connection.rollback")));
+
+    private final PluginService pluginService;
+    private final QueryResultCache cache = QueryResultCache.get();
+    private final Set<String> uncommittedTables = new HashSet<>();
+    private boolean uncommittedUnknownTables;
+
+    public QueryResultCachePlugin(PluginService pluginService) {
+        this.pluginService = pluginService;
+    }
+
+    @Override
+    public Set<String> getSubscribedMethods() {
+        return subscribedMethods;
+    }
+
+    @Override
+    public <T, E extends Exception> T execute(Class<T> resultClass, Class<E> exceptionClass, Object methodInvokeOn,
+                                              String methodName, JdbcCallable<T, E> jdbcMethodFunc,
+                                              Object[] jdbcMethodArgs) throws E {
+        if ("Connection.commit".equals(methodName)) {
+            T result = jdbcMethodFunc.call();
+            invalidateUncommitted();
+            return result;
+        }
+        if ("Connection.rollback".equals(methodName)) {
+            clearUncommitted();
+            return jdbcMethodFunc.call();
+        }
+
+        String sql = sqlOf(methodInvokeOn, methodName, jdbcMethodArgs);
+        if (sql == null) {
+            // Statement batches do not expose their SQL, so assume they may touch anything
+            return write(Collections.<String>emptySet(), jdbcMethodFunc);
+        }
+        String key = QueryResultCache.normalize(sql);
+        if (!QueryResultCache.isQuery(key)) {
+            return write(QueryResultCache.tablesWritten(key), jdbcMethodFunc);
+        }
+
+        long ttlSeconds = cache.ttlSeconds(sql);
+        if (ttlSeconds <= 0 || !methodName.endsWith("executeQuery") || !isReadOnly()) {
+            return jdbcMethodFunc.call();
+        }
+
+        CachedResult cached = cache.lookup(key);
+        if (cached == null) {
+            long start = System.nanoTime();
+            ResultSet rs = (ResultSet) jdbcMethodFunc.call();
+            try {
+                cached = CachedResult.from(rs);
+            } catch (SQLException e) {
+                throw WrapperUtils.wrapExceptionIfNeeded(exceptionClass, e);
+            }
+            cache.put(key, cached, ttlSeconds, start);
+        }
+        return resultClass.cast(cached.newResultSet());
+    }
+
+    private static String sqlOf(Object statement, String methodName, Object[] args) {
+        if (methodName.startsWith("PreparedStatement.") && statement instanceof PreparedStatement) {
+            return statement.toString();
+        }
+        if (args != null && args.length > 0 && args[0] instanceof String) {
+            return (String) args[0];
+        }
+        return null;
+    }
+
+    private boolean isReadOnly() {
+        try {
+            Connection conn = pluginService.getCurrentConnection();
+            return conn != null && conn.isReadOnly();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private <T, E extends Exception> T write(Set<String> tables, JdbcCallable<T, E> jdbcMethodFunc) throws E {
+        recordWrite(tables);
+        try {
+            return jdbcMethodFunc.call();
+        } finally {
+            if (!inTransaction()) {
+                // A hinted read may have started after the first invalidation, while this ran
+                cache.invalidate(tables);
+            }
+        }
+    }
+
+    private void recordWrite(Set<String> tables) {
+        cache.invalidate(tables);
+        if (!inTransaction()) {
+            return;
+        }
+        if (tables.isEmpty()) {
+            uncommittedUnknownTables = true;
+        }
+        uncommittedTables.addAll(tables);
+    }
+
+    private boolean inTransaction() {
+        try {
+            Connection conn = pluginService.getCurrentConnection();
+            return conn != null && !conn.getAutoCommit();
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void invalidateUncommitted() {
+        if (uncommittedUnknownTables) {
+            cache.clear();
+        } else if (!uncommittedTables.isEmpty()) {
+            cache.invalidate(uncommittedTables);
+        }
+        clearUncommitted();
+    }
+
+    private void clearUncommitted() {
+        uncommittedTables.clear();
+        uncommittedUnknownTables = false;
+    }
+}
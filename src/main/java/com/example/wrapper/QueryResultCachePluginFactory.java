@@ -0,0 +1,15 @@
+package com.example.wrapper;
+
+import software.amazon.jdbc.ConnectionPlugin;
+import software.amazon.jdbc.ConnectionPluginFactory;
+import software.amazon.jdbc.PluginService;
+
+import java.util.Properties;
+
+public class QueryResultCachePluginFactory implements ConnectionPluginFactory {
+
+    @Override
+    public ConnectionPlugin getInstance(PluginService pluginService, Properties props) {
+        return new QueryResultCachePlugin(pluginService);
+    }
+}
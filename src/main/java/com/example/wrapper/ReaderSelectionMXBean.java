@@ -0,0 +1,28 @@
+package com.example.wrapper;
+
+import java.util.Map;
+
+/**
+ * JMX view of latency-aware reader selection, registered as
+ * {@code com.example:type=ReaderSelection}. Hosts are keyed by Aurora instance id.
+ */
+public interface ReaderSelectionMXBean {
+
+    /** Exponentially weighted moving average of query latency per reader, in milliseconds. */
+    Map<String, Double> getLatencyEwmaMillis();
+
+    /** Share of new reader connections each eligible reader would currently receive. */
+    Map<String, Double> getSelectionWeights();
+
+    /** Last replica lag reported by {@code aurora_replica_status()}, in milliseconds. */
+    Map<String, Long> getReplicaLagMillis();
+
+    /** Number of times each host was picked for a reader connection. */
+    Map<String, Long> getSelections();
+
+    /** Number of times no reader was eligible and the writer was returned instead. */
+    long getWriterFallbacks();
+
+    /** Readers currently excluded for lag or missing health status. */
+    String[] getExcludedReaders();
+}
@@ -0,0 +1,172 @@
+package com.example.wrapper;
+
+import com.example.config.AppConfig;
+import com.example.config.ConfigWatcher;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process-wide latency, lag and selection state shared by every {@link LeastLatencyReaderPlugin}
+ * instance, since the wrapper creates one plugin per physical connection.
+ *
+ * <p>Latency is tracked as an EWMA with weight {@code db.readerSelection.ewmaAlpha} (default 0.2)
+ * on the newest sample, so a reader that slows down loses traffic within a few queries. With
+ * {@code db.reload=true} a new weight applies to the next sample.
+ */
+@Slf4j
+public final class ReaderSelectionStats implements ReaderSelectionMXBean {
+    private static volatile double alpha = ewmaAlpha();
+    private static final ReaderSelectionStats instance = register(new ReaderSelectionStats());
+
+    private final ConcurrentMap<String, HostStats> hosts = new ConcurrentHashMap<>();
+    private final AtomicLong writerFallbacks = new AtomicLong();
+    private volatile Set<String> excluded = new HashSet<>();
+
+    private ReaderSelectionStats() {
+    }
+
+    public static ReaderSelectionStats get() {
+        return instance;
+    }
+
+    private static double ewmaAlpha() {
+        return Double.parseDouble(AppConfig.getProperty("db.readerSelection.ewmaAlpha", "0.2"));
+    }
+
+    public void recordLatency(String host, long nanos) {
+        HostStats stats = stats(host);
+        synchronized (stats) {
+            stats.ewmaNanos = stats.ewmaNanos < 0 ? nanos : alpha * nanos + (1 - alpha) * stats.ewmaNanos;
+        }
+    }
+
+    /** Latency EWMA in nanoseconds, or a negative value if the host has not been measured yet. */
+    public double latencyEwmaNanos(String host) {
+        HostStats stats = hosts.get(host);
+        return stats != null ? stats.ewmaNanos : -1;
+    }
+
+    public void recordSelection(String host) {
+        stats(host).selections.incrementAndGet();
+    }
+
+    public void recordWriterFallback() {
+        writerFallbacks.incrementAndGet();
+    }
+
+    public boolean isExcluded(String host) {
+        return excluded.contains(host);
+    }
+
+    /**
+     * Replaces the replica status with one poll result and returns the hosts that were not
+     * excluded before, so the caller can recycle connections still pinned to them.
+     */
+    public Set<String> updateReplicaStatus(Map<String, Long> lagMillis, Set<String> nowExcluded) {
+        for (Map.Entry<String, Long> entry : lagMillis.entrySet()) {
+            stats(entry.getKey()).lagMillis = entry.getValue();
+        }
+        Set<String> newlyExcluded = new HashSet<>(nowExcluded);
+        newlyExcluded.removeAll(excluded);
+        if (!excluded.equals(nowExcluded)) {
+            log.info("Readers excluded from selection: {}", nowExcluded.isEmpty() ? "none" : nowExcluded);
+        }
+        excluded = new HashSet<>(nowExcluded);
+        return newlyExcluded;
+    }
+
+    /** Reader hosts known from latency samples or replica status, for health checks. */
+    public Collection<String> knownHosts() {
+        return hosts.keySet();
+    }
+
+    @Override
+    public Map<String, Double> getLatencyEwmaMillis() {
+        Map<String, Double> result = new TreeMap<>();
+        for (Map.Entry<String, HostStats> entry : hosts.entrySet()) {
+            if (entry.getValue().ewmaNanos >= 0) {
+                result.put(entry.getKey(), entry.getValue().ewmaNanos / 1_000_000.0);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getSelectionWeights() {
+        Map<String, Double> weights = new TreeMap<>();
+        double total = 0;
+        for (Map.Entry<String, HostStats> entry : hosts.entrySet()) {
+            double ewma = entry.getValue().ewmaNanos;
+            if (ewma > 0 && !isExcluded(entry.getKey())) {
+                weights.put(entry.getKey(), 1 / ewma);
+                total += 1 / ewma;
+            }
+        }
+        for (Map.Entry<String, Double> entry : weights.entrySet()) {
+            entry.setValue(entry.getValue() / total);
+        }
+        return weights;
+    }
+
+    @Override
+    public Map<String, Long> getReplicaLagMillis() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, HostStats> entry : hosts.entrySet()) {
+            if (entry.getValue().lagMillis >= 0) {
+                result.put(entry.getKey(), entry.getValue().lagMillis);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getSelections() {
+        Map<String, Long> result = new TreeMap<>();
+        for (Map.Entry<String, HostStats> entry : hosts.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().selections.get());
+        }
+        return result;
+    }
+
+    @Override
+    public long getWriterFallbacks() {
+        return writerFallbacks.get();
+    }
+
+    @Override
+    public String[] getExcludedReaders() {
+        return excluded.toArray(new String[0]);
+    }
+
+    private HostStats stats(String host) {
+        return hosts.computeIfAbsent(host, h -> new HostStats());
+    }
+
+    private static ReaderSelectionStats register(ReaderSelectionStats stats) {
+        try {
+            ManagementFactory.getPlatformMBeanServer()
+                    .registerMBean(stats, new ObjectName("com.example:type=ReaderSelection"));
+        } catch (JMException e) {
+            log.warn("Could not register reader selection MBean", e);
+        }
+        ConfigWatcher.onChange("db.readerSelection.ewmaAlpha", () -> alpha = ewmaAlpha());
+        return stats;
+    }
+
+    private static final class HostStats {
+        private volatile double ewmaNanos = -1;
+        private volatile long lagMillis = -1;
+        private final AtomicLong selections = new AtomicLong();
+    }
+}
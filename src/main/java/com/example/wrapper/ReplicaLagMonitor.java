@@ -0,0 +1,113 @@
+package com.example.wrapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls {@code aurora_replica_status()} on the writer and excludes readers whose replica lag is
+ * above {@code maxLagMs}, whose status has not been refreshed for {@code staleMs}, or that have
+ * dropped out of the status entirely. When a reader becomes excluded, {@code onExclusion} runs so
+ * pooled connections already pinned to it can be recycled onto a healthy reader. Both thresholds
+ * can be changed while it runs with {@link #setThresholds}.
+ *
+ * <p>Outside Aurora the function does not exist; the monitor then stops and nothing is excluded.
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+    private static final String STATUS_SQL =
+            "SELECT server_id, session_id, replica_lag_in_msec, "
+                    + "EXTRACT(EPOCH FROM (now() - last_update_timestamp)) * 1000 AS staleness_ms "
+                    + "FROM aurora_replica_status()";
+    private static final String WRITER_SESSION_ID = "MASTER_SESSION_ID";
+    private static final String UNDEFINED_FUNCTION = "42883";
+
+    private final DataSource writerDataSource;
+    private volatile long maxLagMs;
+    private volatile long staleMs;
+    private final Runnable onExclusion;
+    private final ReaderSelectionStats stats = ReaderSelectionStats.get();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "replica-lag-monitor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public ReplicaLagMonitor(DataSource writerDataSource, long maxLagMs, long staleMs, Runnable onExclusion) {
+        this.writerDataSource = writerDataSource;
+        this.maxLagMs = maxLagMs;
+        this.staleMs = staleMs;
+        this.onExclusion = onExclusion;
+    }
+
+    public void start(long pollMs) {
+        scheduler.scheduleWithFixedDelay(this::poll, 0, pollMs, TimeUnit.MILLISECONDS);
+        log.info("Replica lag monitor started: maxLagMs={}, pollMs={}", maxLagMs, pollMs);
+    }
+
+    public void setThresholds(long maxLagMs, long staleMs) {
+        this.maxLagMs = maxLagMs;
+        this.staleMs = staleMs;
+        log.info("Replica lag monitor thresholds: maxLagMs={}, staleMs={}", maxLagMs, staleMs);
+    }
+
+    void poll() {
+        // An exception escaping a scheduled task would cancel every later poll without a word
+        try {
+            pollReplicaStatus();
+        } catch (RuntimeException e) {
+            log.warn("Replica lag poll failed, keeping previous exclusions", e);
+        }
+    }
+
+    private void pollReplicaStatus() {
+        Map<String, Long> lag = new HashMap<>();
+        Set<String> excluded = new HashSet<>(stats.knownHosts());
+        try (Connection conn = writerDataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(STATUS_SQL)) {
+            while (rs.next()) {
+                String host = rs.getString("server_id");
+                if (WRITER_SESSION_ID.equals(rs.getString("session_id"))) {
+                    excluded.remove(host);
+                    continue;
+                }
+                long lagMs = Math.round(rs.getDouble("replica_lag_in_msec"));
+                lag.put(host, lagMs);
+                if (lagMs <= maxLagMs && rs.getDouble("staleness_ms") <= staleMs) {
+                    excluded.remove(host);
+                } else {
+                    excluded.add(host);
+                }
+            }
+        } catch (SQLException e) {
+            if (UNDEFINED_FUNCTION.equals(e.getSQLState())) {
+                log.warn("aurora_replica_status() is not available, replica lag will not be monitored");
+                scheduler.shutdown();
+            } else {
+                log.warn("Error polling replica status, keeping previous exclusions", e);
+            }
+            return;
+        }
+
+        if (!stats.updateReplicaStatus(lag, excluded).isEmpty()) {
+            onExclusion.run();
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
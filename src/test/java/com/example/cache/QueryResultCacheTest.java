@@ -0,0 +1,63 @@
+package com.example.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryResultCacheTest {
+
+    @Test
+    void normalizeDropsTheHintAndCollapsesWhitespace() {
+        assertEquals("SELECT * FROM orders WHERE id = ?",
+                QueryResultCache.normalize("/* cache:ttl=5 */\n  SELECT *\n\tFROM   orders WHERE id = ?  "));
+    }
+
+    @Test
+    void normalizeKeepsWhitespaceInsideLiterals() {
+        assertEquals("SELECT * FROM orders WHERE customer_name = 'Jane  Smith'",
+                QueryResultCache.normalize("SELECT *  FROM orders\nWHERE customer_name = 'Jane  Smith'"));
+    }
+
+    @Test
+    void selectsAndValuesAreQueries() {
+        assertTrue(QueryResultCache.isQuery("SELECT * FROM orders"));
+        assertTrue(QueryResultCache.isQuery("values (1)"));
+        assertTrue(QueryResultCache.isQuery("WITH recent AS (SELECT * FROM orders) SELECT count(*) FROM recent"));
+    }
+
+    @Test
+    void lockingReadsAndWritesAreNotQueries() {
+        assertFalse(QueryResultCache.isQuery("SELECT * FROM orders WHERE id = ? FOR UPDATE"));
+        assertFalse(QueryResultCache.isQuery("SELECT * FROM orders FOR SHARE"));
+        assertFalse(QueryResultCache.isQuery(
+                "WITH moved AS (UPDATE orders SET status = 'SHIPPED' RETURNING id) SELECT * FROM moved"));
+        assertFalse(QueryResultCache.isQuery("UPDATE orders SET status = ? WHERE id = ?"));
+        assertFalse(QueryResultCache.isQuery("SET search_path = public"));
+    }
+
+    @Test
+    void tablesWrittenNamesTheModifiedTables() {
+        assertEquals(Collections.singleton("orders"),
+                QueryResultCache.tablesWritten("INSERT INTO orders (customer_name) VALUES (?)"));
+        assertEquals(Collections.singleton("orders"),
+                QueryResultCache.tablesWritten("UPDATE public.orders SET status = ? WHERE id = ?"));
+        assertEquals(Collections.singleton("orders"),
+                QueryResultCache.tablesWritten("DELETE FROM ONLY orders WHERE id = ?"));
+        assertEquals(new HashSet<>(Arrays.asList("orders", "order_archive")),
+                QueryResultCache.tablesWritten(
+                        "WITH gone AS (DELETE FROM orders RETURNING *) INSERT INTO order_archive SELECT * FROM gone"));
+        assertEquals(Collections.singleton("orders"), QueryResultCache.tablesWritten("TRUNCATE TABLE orders"));
+        assertEquals(Collections.singleton("orders"), QueryResultCache.tablesWritten("COPY orders FROM STDIN"));
+    }
+
+    @Test
+    void tablesWrittenIsEmptyWhenUnknown() {
+        assertTrue(QueryResultCache.tablesWritten("SELECT refresh_everything()").isEmpty());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.cdc;
+
+import com.example.model.Order;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TestDecodingParserTest {
+
+    @Test
+    void insertCarriesTheFullRow() {
+        OrderChangeEvent event = TestDecodingParser.parse("table public.orders: INSERT: id[integer]:7"
+                + " customer_name[character varying]:'Jane Smith' product[character varying]:'Laptop'"
+                + " quantity[integer]:2 total_amount[numeric]:2400.50 status[character varying]:'PENDING'"
+                + " order_date[timestamp without time zone]:'2024-05-01 10:15:02.123456'", "0/16B3748");
+
+        assertEquals(OrderChangeEvent.Type.INSERT, event.getType());
+        assertEquals("0/16B3748", event.getLsn());
+        Order order = event.getOrder();
+        assertEquals(7L, order.getId());
+        assertEquals("Jane Smith", order.getCustomerName());
+        assertEquals("Laptop", order.getProduct());
+        assertEquals(2, order.getQuantity());
+        assertEquals(2400.50, order.getTotalAmount());
+        assertEquals("PENDING", order.getStatus());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 2, 123_456_000), order.getOrderDate());
+    }
+
+    @Test
+    void quotesAreUnescapedAndNullsMapped() {
+        OrderChangeEvent event = TestDecodingParser.parse("table public.orders: UPDATE: id[integer]:7"
+                + " customer_name[character varying]:'O''Brien [VIP]: new-tuple: x' quantity[integer]:null"
+                + " status[character varying]:'SHIPPED' order_date[timestamp without time zone]:'2024-05-01 10:15:02'",
+                "0/1");
+
+        Order order = event.getOrder();
+        assertEquals(7L, order.getId());
+        assertEquals("O'Brien [VIP]: new-tuple: x", order.getCustomerName());
+        assertNull(order.getQuantity());
+        assertEquals("SHIPPED", order.getStatus());
+        assertEquals(LocalDateTime.of(2024, 5, 1, 10, 15, 2), order.getOrderDate());
+    }
+
+    @Test
+    void keyChangeUsesTheNewTuple() {
+        OrderChangeEvent event = TestDecodingParser.parse("table public.orders: UPDATE: old-key: id[integer]:7"
+                + " new-tuple: id[integer]:8 status[character varying]:'SHIPPED'", "0/1");
+
+        assertEquals(8L, event.getOrder().getId());
+        assertEquals("SHIPPED", event.getOrder().getStatus());
+    }
+
+    @Test
+    void deleteCarriesOnlyTheId() {
+        OrderChangeEvent event = TestDecodingParser.parse("table public.orders: DELETE: id[integer]:7", "0/1");
+
+        assertEquals(OrderChangeEvent.Type.DELETE, event.getType());
+        assertEquals(7L, event.getOrder().getId());
+        assertNull(event.getOrder().getStatus());
+    }
+
+    @Test
+    void otherMessagesAreIgnored() {
+        assertNull(TestDecodingParser.parse("BEGIN 1234", "0/1"));
+        assertNull(TestDecodingParser.parse("table public.customers: INSERT: id[integer]:1", "0/1"));
+        assertNull(TestDecodingParser.parse("table public.orders: TRUNCATE: (no-flags)", "0/1"));
+        assertNull(TestDecodingParser.parse("table public.orders: DELETE: (no-tuple-data)", "0/1"));
+    }
+
+    @Test
+    void commitTimestampIsParsed() {
+        assertTrue(TestDecodingParser.isCommit("COMMIT 1234 (at 2024-05-01 10:15:02.123456+00)"));
+        assertFalse(TestDecodingParser.isCommit("BEGIN 1234"));
+        assertEquals(OffsetDateTime.parse("2024-05-01T10:15:02.123+00:00").toInstant().toEpochMilli(),
+                TestDecodingParser.commitTimeMillis("COMMIT 1234 (at 2024-05-01 10:15:02.123456+00)"));
+        assertEquals(OffsetDateTime.parse("2024-05-01T10:15:02+05:30").toInstant().toEpochMilli(),
+                TestDecodingParser.commitTimeMillis("COMMIT 1234 (at 2024-05-01 10:15:02+05:30)"));
+        assertEquals(-1, TestDecodingParser.commitTimeMillis("COMMIT 1234"));
+    }
+}
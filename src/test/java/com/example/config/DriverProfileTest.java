@@ -0,0 +1,67 @@
+package com.example.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DriverProfileTest {
+    private static final String PLAIN_URL = "jdbc:postgresql://db.example.com:5432/postgres";
+    private static final String WRAPPER_URL = "jdbc:aws-wrapper:postgresql://db.example.com:5432/postgres";
+
+    @Test
+    void standardProfileStripsTheWrapperPrefix() {
+        HikariConfig config = new HikariConfig();
+        DriverProfile.STANDARD_JDBC.configure(config, WRAPPER_URL, "postgres", "secret");
+
+        assertEquals(PLAIN_URL, config.getJdbcUrl());
+        assertEquals("postgres", config.getUsername());
+        assertNull(config.getDataSourceClassName());
+    }
+
+    @Test
+    void wrapperProfilesAddTheWrapperPrefixOnce() {
+        for (String url : Arrays.asList(PLAIN_URL, WRAPPER_URL)) {
+            HikariConfig config = new HikariConfig();
+            DriverProfile.AWS_JDBC_WRAPPER.configure(config, url, "postgres", "secret");
+
+            assertEquals(WRAPPER_URL, config.getDataSourceProperties().get("jdbcUrl"), url);
+            assertEquals("software.amazon.jdbc.ds.AwsWrapperDataSource", config.getDataSourceClassName());
+        }
+    }
+
+    @Test
+    void wrapperProfilesSelectTheirPlugins() {
+        assertEquals("failover", targetProperties(DriverProfile.AWS_JDBC_WRAPPER).getProperty("wrapperPlugins"));
+        assertEquals("readWriteSplitting,failover",
+                targetProperties(DriverProfile.READ_WRITE_SPLITTING).getProperty("wrapperPlugins"));
+        assertEquals("secret", targetProperties(DriverProfile.READ_WRITE_SPLITTING).getProperty("password"));
+    }
+
+    @Test
+    void onlyReadWriteSplittingMarksReadsReadOnly() {
+        assertTrue(DriverProfile.READ_WRITE_SPLITTING.readOnlyReads());
+        assertFalse(DriverProfile.AWS_JDBC_WRAPPER.readOnlyReads());
+        assertFalse(DriverProfile.STANDARD_JDBC.readOnlyReads());
+    }
+
+    @Test
+    void parsesCommaSeparatedIds() {
+        assertEquals(Arrays.asList(DriverProfile.STANDARD_JDBC, DriverProfile.READ_WRITE_SPLITTING),
+                DriverProfile.parseList(" standard-jdbc, READ-WRITE-SPLITTING,"));
+        assertThrows(IllegalArgumentException.class, () -> DriverProfile.parse("mysql"));
+    }
+
+    private static Properties targetProperties(DriverProfile profile) {
+        HikariConfig config = new HikariConfig();
+        profile.configure(config, PLAIN_URL, "postgres", "secret");
+        return (Properties) config.getDataSourceProperties().get("targetDataSourceProperties");
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.config;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PoolSizeControllerTest {
+    private static final String PREFIX = "sizing-test";
+
+    @BeforeAll
+    static void bounds() {
+        System.setProperty(PREFIX + ".poolSizing.minSize", "2");
+        System.setProperty(PREFIX + ".poolSizing.maxSize", "20");
+        System.setProperty(PREFIX + ".poolSizing.increaseStep", "2");
+        System.setProperty(PREFIX + ".poolSizing.decreaseFactor", "0.75");
+    }
+
+    @AfterAll
+    static void clearBounds() {
+        for (String name : new String[] {"minSize", "maxSize", "increaseStep", "decreaseFactor"}) {
+            System.clearProperty(PREFIX + ".poolSizing." + name);
+        }
+    }
+
+    @Test
+    void congestionGrowsByTheStepOrToTheDemand() {
+        PoolSizeController controller = new PoolSizeController(PREFIX);
+
+        assertEquals(12, controller.nextSize(10, 4, 10, true));
+        assertEquals(15, controller.nextSize(10, 15, 10, true));
+    }
+
+    @Test
+    void growthStopsAtTheMaximum() {
+        PoolSizeController controller = new PoolSizeController(PREFIX);
+
+        assertEquals(20, controller.nextSize(19, 3, 19, true));
+        assertEquals(20, controller.nextSize(10, 40, 10, true));
+    }
+
+    @Test
+    void lightLoadShrinksByTheFactorButNotBelowDemandOrPeak() {
+        PoolSizeController controller = new PoolSizeController(PREFIX);
+
+        assertEquals(15, controller.nextSize(20, 1, 2, false));
+        assertEquals(17, controller.nextSize(20, 17, 2, false));
+        assertEquals(3, controller.nextSize(4, 0, 1, false));
+        assertEquals(2, controller.nextSize(2, 0, 0, false));
+    }
+
+    @Test
+    void steadyLoadKeepsTheSize() {
+        PoolSizeController controller = new PoolSizeController(PREFIX);
+
+        assertEquals(10, controller.nextSize(10, 6, 5, false));
+        assertEquals(10, controller.nextSize(10, 0, 8, false));
+    }
+
+    @Test
+    void minimumIdleFollowsTheDemandWithinTheBounds() {
+        PoolSizeController controller = new PoolSizeController(PREFIX);
+
+        assertEquals(6, controller.minimumIdle(10, 6));
+        assertEquals(2, controller.minimumIdle(10, 0));
+        assertEquals(10, controller.minimumIdle(10, 30));
+    }
+
+    @Test
+    void invalidBoundsAreRejected() {
+        System.setProperty("sizing-test-bad.poolSizing.minSize", "8");
+        System.setProperty("sizing-test-bad.poolSizing.maxSize", "4");
+        try {
+            assertThrows(IllegalArgumentException.class, () -> new PoolSizeController("sizing-test-bad"));
+        } finally {
+            System.clearProperty("sizing-test-bad.poolSizing.minSize");
+            System.clearProperty("sizing-test-bad.poolSizing.maxSize");
+        }
+    }
+}
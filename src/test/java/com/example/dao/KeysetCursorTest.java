@@ -0,0 +1,79 @@
+package com.example.dao;
+
+import com.example.model.Order;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KeysetCursorTest {
+
+    @Test
+    void tokenRoundTripsOrderDateAndId() {
+        LocalDateTime orderDate = LocalDateTime.of(2024, 3, 9, 17, 45, 12, 123_456_000);
+        KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.after(order(42L, orderDate)).encode());
+
+        assertEquals(orderDate, cursor.getOrderDate());
+        assertEquals(42L, cursor.getId());
+    }
+
+    @Test
+    void tokenKeepsWallClockTimesInADaylightSavingGap() {
+        TimeZone defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("America/New_York"));
+        try {
+            // 02:30 does not exist in New York on 2024-03-10; a Timestamp would turn it into 03:30
+            LocalDateTime orderDate = LocalDateTime.of(2024, 3, 10, 2, 30);
+            KeysetCursor cursor = KeysetCursor.decode(KeysetCursor.after(order(7L, orderDate)).encode());
+
+            assertEquals(orderDate, cursor.getOrderDate());
+        } finally {
+            TimeZone.setDefault(defaultZone);
+        }
+    }
+
+    @Test
+    void tokenIsUrlSafe() {
+        String token = KeysetCursor.after(order(Long.MAX_VALUE, LocalDateTime.of(2024, 1, 1, 0, 0))).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"), token);
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not a token"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("bnVsbHw0Mg"));  // "null|42"
+    }
+
+    @Test
+    void orderWithoutDateCannotBePagedAfter() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.after(order(42L, null)));
+    }
+
+    @Test
+    void pageSqlSeeksPastTheCursorInIndexOrder() {
+        String sql = AbstractOrderDAO.pageSql(true, true);
+
+        assertTrue(sql.contains("customer_name ILIKE ?"), sql);
+        assertTrue(sql.contains("(order_date, id) < (?, ?)"), sql);
+        assertTrue(sql.endsWith("ORDER BY order_date DESC, id DESC LIMIT ?"), sql);
+        assertFalse(sql.contains("OFFSET"), sql);
+    }
+
+    @Test
+    void firstPageSqlHasNoCursorPredicate() {
+        String sql = AbstractOrderDAO.pageSql(false, false);
+
+        assertFalse(sql.contains("<"), sql);
+        assertEquals(1, sql.length() - sql.replace("?", "").length());
+    }
+
+    private static Order order(Long id, LocalDateTime orderDate) {
+        return new Order(id, "Jane Smith", "Laptop", 1, 1200.0, "PENDING", orderDate);
+    }
+}
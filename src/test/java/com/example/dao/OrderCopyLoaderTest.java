@@ -0,0 +1,67 @@
+package com.example.dao;
+
+import com.example.model.Order;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderCopyLoaderTest {
+    private final OrderCopyLoader loader = new OrderCopyLoader((DataSource) null);
+
+    @Test
+    void encodesColumnsAsCopyText() throws Exception {
+        assertEquals("Jane Smith\tLaptop\t2\t1200.50\tPENDING\n",
+                encode(new Order(null, "Jane Smith", "Laptop", 2, 1200.5, "PENDING", null)));
+    }
+
+    @Test
+    void escapesCopyControlCharacters() throws Exception {
+        assertEquals("a\\\\b\\tc\\nd\\re\tLaptop\t1\t0.05\tPENDING\n",
+                encode(new Order(null, "a\\b\tc\nd\re", "Laptop", 1, 0.05, "PENDING", null)));
+    }
+
+    @Test
+    void writesNullsAsBackslashN() throws Exception {
+        assertEquals("\\N\t\\N\t\\N\t\\N\t\\N\n", encode(new Order(null, null, null, null, null, null, null)));
+    }
+
+    @Test
+    void writesNegativeAmountsWithTwoDecimals() throws Exception {
+        assertEquals("x\ty\t-3\t-7.09\tREFUND\n", encode(new Order(null, "x", "y", -3, -7.09, "REFUND", null)));
+    }
+
+    @Test
+    void rejectsAmountsThatAreNotFinite() {
+        for (double amount : new double[] {Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY, 1e300}) {
+            SQLException e = assertThrows(SQLException.class,
+                    () -> loader.encode(new Order(null, "x", "y", 1, amount, "PENDING", null)));
+            assertTrue(e.getMessage().startsWith("Row 1 "), e.getMessage());
+        }
+    }
+
+    @Test
+    void encodesNonAsciiAsUtf8() throws Exception {
+        String name = "Zo\u00EB \u00C5str\u00F6m \u65E5\u672C \uD83D\uDE00";
+        byte[] row = loader.encode(new Order(null, name, "p", 1, 1.0, "s", null));
+
+        assertArrayEquals((name + "\tp\t1\t1.00\ts\n").getBytes(StandardCharsets.UTF_8), row);
+    }
+
+    @Test
+    void replacesLoneSurrogatesWithReplacementCharacter() throws Exception {
+        byte[] row = loader.encode(new Order(null, "a\uD83Db\uDE00", "p", 1, 1.0, "s", null));
+
+        assertEquals("a\uFFFDb\uFFFD\tp\t1\t1.00\ts\n", new String(row, StandardCharsets.UTF_8));
+    }
+
+    private String encode(Order order) throws Exception {
+        return new String(loader.encode(order), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,101 @@
+package com.example.dao;
+
+import com.example.model.Order;
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class OrderRowMapperTest {
+    private static final LocalDateTime ORDER_DATE = LocalDateTime.of(2024, 5, 1, 12, 30);
+
+    @Test
+    void mapsColumnsByLabelWhateverTheirOrder() throws SQLException {
+        ResultSet rs = row("status", "order_date", "id", "total_amount", "customer_name", "quantity", "product");
+
+        Order order = OrderRowMapper.forResultSet(rs).mapRow(rs);
+
+        assertEquals(new Order(7L, "Jane Smith", "Laptop", 3, 99.5, "PENDING", ORDER_DATE), order);
+    }
+
+    @Test
+    void reusesThePlanForTheSameShape() throws SQLException {
+        String[] columns = {"id", "customer_name", "product", "quantity", "total_amount", "status", "order_date"};
+
+        assertSame(OrderRowMapper.forResultSet(row(columns)), OrderRowMapper.forResultSet(row(columns)));
+    }
+
+    @Test
+    void missingColumnIsReported() {
+        assertThrows(SQLException.class, () -> OrderRowMapper.forResultSet(row("id", "customer_name")));
+    }
+
+    @Test
+    @org.junit.jupiter.api.Order(Integer.MAX_VALUE)  // Last: it fills the cache the other tests rely on
+    void cacheStopsGrowingAtTheBound() throws SQLException {
+        for (int i = 0; i < OrderRowMapper.MAX_PLANS + 10; i++) {
+            OrderRowMapper.forResultSet(row("id", "customer_name", "product", "quantity", "total_amount", "status",
+                    "order_date", "extra_" + i));
+        }
+        assertTrue(OrderRowMapper.cachedPlans() <= OrderRowMapper.MAX_PLANS, "plans: " + OrderRowMapper.cachedPlans());
+
+        String[] uncached = {"id", "customer_name", "product", "quantity", "total_amount", "status", "order_date",
+                "uncached"};
+        assertNotSame(OrderRowMapper.forResultSet(row(uncached)), OrderRowMapper.forResultSet(row(uncached)));
+    }
+
+    /** A one-row result set with the given column labels, holding the same order whatever their order. */
+    private static ResultSet row(String... labels) {
+        Map<String, Object> values = new HashMap<>();
+        values.put("id", 7L);
+        values.put("customer_name", "Jane Smith");
+        values.put("product", "Laptop");
+        values.put("quantity", 3);
+        values.put("total_amount", 99.5);
+        values.put("status", "PENDING");
+        values.put("order_date", ORDER_DATE);
+        List<String> columns = Arrays.asList(labels);
+
+        ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (method, args) -> {
+            switch (method) {
+                case "getColumnCount": return columns.size();
+                case "getColumnLabel": return columns.get((Integer) args[0] - 1);
+                default: throw new UnsupportedOperationException(method);
+            }
+        });
+        return proxy(ResultSet.class, (method, args) -> {
+            if ("getMetaData".equals(method)) {
+                return metaData;
+            }
+            if (method.startsWith("get") && args.length > 0 && args[0] instanceof Integer) {
+                return values.get(columns.get((Integer) args[0] - 1));
+            }
+            throw new UnsupportedOperationException(method);
+        });
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args == null ? new Object[0] : args)));
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConsistencyTokenTest {
+
+    @Test
+    void parsesAndPrintsLsnText() {
+        assertEquals("0/16B3748", ConsistencyToken.parse("0/16B3748").toString());
+        assertEquals("1A/FF", ConsistencyToken.parse("1a/ff").toString());
+        assertEquals(ConsistencyToken.parse("0/16B3748"), ConsistencyToken.parse("0/16b3748"));
+    }
+
+    @Test
+    void emptyLsnIsNone() {
+        assertSame(ConsistencyToken.NONE, ConsistencyToken.parse(null));
+        assertSame(ConsistencyToken.NONE, ConsistencyToken.parse(""));
+        assertTrue(ConsistencyToken.parse("0/0").isNone());
+    }
+
+    @Test
+    void malformedLsnIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> ConsistencyToken.parse("16B3748"));
+        assertThrows(IllegalArgumentException.class, () -> ConsistencyToken.parse("0/XYZ"));
+    }
+
+    @Test
+    void writeIsVisibleOnceReplayedUpToItsPosition() {
+        ConsistencyToken token = ConsistencyToken.parse("1/100");
+
+        assertFalse(token.isReplayedBy("1/FF"));
+        assertFalse(token.isReplayedBy("0/FFFFFFFF"));
+        assertFalse(token.isReplayedBy(null));
+        assertTrue(token.isReplayedBy("1/100"));
+        assertTrue(token.isReplayedBy("2/0"));
+    }
+
+    @Test
+    void noneIsReplayedEverywhere() {
+        assertTrue(ConsistencyToken.NONE.isReplayedBy(null));
+        assertTrue(ConsistencyToken.NONE.isReplayedBy("0/1"));
+    }
+
+    @Test
+    void comparesPositionsAsUnsigned() {
+        ConsistencyToken high = ConsistencyToken.parse("80000000/0");
+
+        assertTrue(high.isReplayedBy("FFFFFFFF/0"));
+        assertFalse(high.isReplayedBy("7FFFFFFF/FFFFFFFF"));
+        assertSame(high, ConsistencyToken.parse("1/0").max(high));
+    }
+
+    @Test
+    void maxKeepsTheLaterPosition() {
+        ConsistencyToken earlier = ConsistencyToken.parse("0/10");
+        ConsistencyToken later = ConsistencyToken.parse("0/20");
+
+        assertSame(later, earlier.max(later));
+        assertSame(later, later.max(earlier));
+        assertSame(earlier, ConsistencyToken.NONE.max(earlier));
+    }
+}
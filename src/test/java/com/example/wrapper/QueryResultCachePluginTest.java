@@ -0,0 +1,137 @@
+package com.example.wrapper;
+
+import com.example.cache.QueryResultCache;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import software.amazon.jdbc.JdbcCallable;
+import software.amazon.jdbc.PluginService;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryResultCachePluginTest {
+
+    @BeforeAll
+    static void noFence() {
+        // Without the fence, only the plugin's own invalidations keep a stale read out of the cache
+        System.setProperty("db.resultCache.invalidationFenceMs", "0");
+        QueryResultCache.get().reconfigure();
+    }
+
+    @AfterAll
+    static void restoreFence() {
+        System.clearProperty("db.resultCache.invalidationFenceMs");
+        QueryResultCache.get().reconfigure();
+    }
+
+    @Test
+    void hintedReadIsServedFromTheCache() throws SQLException {
+        QueryResultCachePlugin plugin = new QueryResultCachePlugin(pluginService(true));
+        String read = "/* cache:ttl=60 */ SELECT status FROM orders WHERE id = 1";
+
+        assertEquals("PENDING", read(plugin, read, "PENDING"));
+        assertEquals("PENDING", read(plugin, read, "SHIPPED"));
+    }
+
+    @Test
+    void readDuringAnAutocommitWriteIsNotKept() throws SQLException {
+        QueryResultCachePlugin plugin = new QueryResultCachePlugin(pluginService(true));
+        String read = "/* cache:ttl=60 */ SELECT status FROM orders WHERE id = 2";
+
+        update(plugin, "UPDATE orders SET status = 'SHIPPED' WHERE id = 2", () -> {
+            // Starts after the write invalidated orders but sees the rows from before it
+            assertEquals("PENDING", read(plugin, read, "PENDING"));
+            return 1;
+        });
+
+        assertEquals("SHIPPED", read(plugin, read, "SHIPPED"));
+    }
+
+    @Test
+    void readDuringATransactionIsDroppedOnCommit() throws SQLException {
+        QueryResultCachePlugin plugin = new QueryResultCachePlugin(pluginService(false));
+        String read = "/* cache:ttl=60 */ SELECT status FROM orders WHERE id = 3";
+
+        update(plugin, "UPDATE orders SET status = 'SHIPPED' WHERE id = 3", () -> 1);
+        assertEquals("PENDING", read(plugin, read, "PENDING"));
+        plugin.execute(Void.class, SQLException.class, null, "Connection.commit", () -> null, new Object[0]);
+
+        assertEquals("SHIPPED", read(plugin, read, "SHIPPED"));
+    }
+
+    private static String read(QueryResultCachePlugin plugin, String sql, String status) throws SQLException {
+        try (ResultSet rs = plugin.execute(ResultSet.class, SQLException.class, null, "Statement.executeQuery",
+                () -> resultSet(status), new Object[] {sql})) {
+            rs.next();
+            return rs.getString(1);
+        }
+    }
+
+    private static void update(QueryResultCachePlugin plugin, String sql,
+                               JdbcCallable<Integer, SQLException> statement) throws SQLException {
+        plugin.execute(Integer.class, SQLException.class, null, "Statement.executeUpdate", statement, new Object[] {sql});
+    }
+
+    private static PluginService pluginService(boolean autoCommit) {
+        Connection conn = proxy(Connection.class, (method, args) -> {
+            switch (method) {
+                case "getAutoCommit":
+                    return autoCommit;
+                case "isReadOnly":
+                    return true;
+                default:
+                    return null;
+            }
+        });
+        return proxy(PluginService.class, (method, args) -> "getCurrentConnection".equals(method) ? conn : null);
+    }
+
+    /** A one-row, one-column result as the driver would return it. */
+    private static ResultSet resultSet(String status) {
+        ResultSetMetaData metaData = proxy(ResultSetMetaData.class, (method, args) -> {
+            switch (method) {
+                case "getColumnCount":
+                    return 1;
+                case "getColumnType":
+                    return Types.VARCHAR;
+                case "getColumnLabel":
+                    return "status";
+                case "getColumnTypeName":
+                    return "varchar";
+                default:
+                    return null;
+            }
+        });
+        boolean[] consumed = new boolean[1];
+        return proxy(ResultSet.class, (method, args) -> {
+            switch (method) {
+                case "getMetaData":
+                    return metaData;
+                case "next":
+                    boolean hasRow = !consumed[0];
+                    consumed[0] = true;
+                    return hasRow;
+                case "getObject":
+                    return status;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private interface Handler {
+        Object invoke(String method, Object[] args);
+    }
+
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> handler.invoke(method.getName(), args)));
+    }
+}